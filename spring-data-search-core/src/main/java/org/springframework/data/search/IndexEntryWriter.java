@@ -0,0 +1,34 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search;
+
+/**
+ * Contract for copying the indexable fields of an object into a search index
+ * entry. The counterpart of {@link IndexEntryMapper}.
+ * 
+ * @author Manish Baxi
+ */
+public interface IndexEntryWriter<T>
+{
+    /**
+     * Copies the indexable fields of an object into a search index entry.
+     * 
+     * @param bean The object to copy.
+     * @param entry The search index entry to copy into.
+     */
+    void write(T bean, IndexEntry entry);
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search;
+
+/**
+ * Raised when an update cannot be accepted because the queue of updates
+ * waiting to be sent to the search server is full.
+ * 
+ * @author Manish Baxi
+ */
+public class IndexQueueFullException extends SearchServerException
+{
+    private static final long serialVersionUID = 3471196380217763452L;
+
+    /**
+     * Sets the message associated with the exception.
+     * 
+     * @param message The message associated with the exception.
+     */
+    public IndexQueueFullException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the outcome of indexing a stream of objects with
+ * {@link SearchOperations#index(java.util.Iterator)}. Only the number of
+ * indexed objects is kept, not their identifiers, so that the summary stays
+ * small however many objects were indexed. Details are kept for at most
+ * {@link #MAX_RECORDED_FAILURES} failures.
+ * 
+ * @author Manish Baxi
+ */
+public final class IndexSummary
+{
+    /**
+     * The maximum number of failures for which details are kept.
+     */
+    public static final int     MAX_RECORDED_FAILURES = 100;
+
+    private final long          failedCount;
+    private final List<Failure> failures;
+    private final long          indexedCount;
+
+    /**
+     * Sets the number of objects indexed and the objects that failed.
+     * 
+     * @param indexedCount The number of objects sent to the search index.
+     * @param failedCount The number of objects that could not be indexed.
+     * @param failures Details of the first failures.
+     */
+    IndexSummary(final long indexedCount, final long failedCount, final List<Failure> failures)
+    {
+        this.failedCount = failedCount;
+        this.failures = Collections.unmodifiableList(failures);
+        this.indexedCount = indexedCount;
+    }
+
+    /**
+     * Gets the number of objects that could not be indexed.
+     * 
+     * @return The number of failed objects.
+     */
+    public long getFailedCount()
+    {
+        return this.failedCount;
+    }
+
+    /**
+     * Gets details of the objects that could not be indexed, in the order in
+     * which they were encountered. If more than
+     * {@link #MAX_RECORDED_FAILURES} objects failed, only the first ones are
+     * returned.
+     * 
+     * @return An unmodifiable {@link List} of {@link Failure}s.
+     */
+    public List<Failure> getFailures()
+    {
+        return this.failures;
+    }
+
+    /**
+     * Gets the number of objects sent to the search index.
+     * 
+     * @return The number of indexed objects.
+     */
+    public long getIndexedCount()
+    {
+        return this.indexedCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return "indexed=" + this.indexedCount + ", failed=" + this.failedCount;
+    }
+
+    /**
+     * Details of an object that could not be indexed.
+     */
+    public static final class Failure
+    {
+        private final RuntimeException cause;
+        private final String           id;
+        private final long             position;
+
+        /**
+         * Sets the object that failed and the reason.
+         * 
+         * @param position The position of the object in the indexed stream.
+         * @param id The unique identifier of the object, if known.
+         * @param cause The reason the object could not be indexed.
+         */
+        Failure(final long position, final String id, final RuntimeException cause)
+        {
+            this.cause = cause;
+            this.id = id;
+            this.position = position;
+        }
+
+        /**
+         * Gets the reason the object could not be indexed.
+         * 
+         * @return A {@link RuntimeException}.
+         */
+        public RuntimeException getCause()
+        {
+            return this.cause;
+        }
+
+        /**
+         * Gets the unique identifier of the object, which is only known for
+         * {@link Indexable} objects.
+         * 
+         * @return The unique identifier of the object, or <code>null</code>.
+         */
+        public String getId()
+        {
+            return this.id;
+        }
+
+        /**
+         * Gets the zero-based position of the object in the indexed stream.
+         * 
+         * @return The position of the object.
+         */
+        public long getPosition()
+        {
+            return this.position;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return "position=" + this.position + ", id=" + this.id + ", cause=" + this.cause;
+        }
+    }
+}
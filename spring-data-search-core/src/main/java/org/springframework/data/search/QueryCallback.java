@@ -0,0 +1,42 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search;
+
+/**
+ * Callback for the completion of a query performed asynchronously.
+ * 
+ * @author Manish Baxi
+ * @see QueryFuture#addCallback(QueryCallback)
+ */
+public interface QueryCallback<T>
+{
+    /**
+     * Called when the query fails or is cancelled.
+     * 
+     * @param cause The reason the query failed, which is a
+     *            {@link java.util.concurrent.CancellationException} if the
+     *            query was cancelled.
+     */
+    void onFailure(Throwable cause);
+
+    /**
+     * Called when the query succeeds.
+     * 
+     * @param result The result of the query.
+     */
+    void onSuccess(T result);
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search;
+
+import java.util.concurrent.Future;
+
+/**
+ * Result of a query performed asynchronously, to which callbacks can be added
+ * instead of blocking on {@link #get()}.
+ * 
+ * @author Manish Baxi
+ * @see SearchOperations#queryAsync(String, org.springframework.data.domain.Pageable)
+ */
+public interface QueryFuture<T> extends Future<T>
+{
+    /**
+     * Adds a callback to be called once the query completes, on the thread
+     * that performed it. If the query has already completed, the callback is
+     * called immediately on the calling thread.
+     * 
+     * @param callback The {@link QueryCallback} to add.
+     */
+    void addCallback(QueryCallback<? super T> callback);
+}
@@ -40,6 +40,15 @@ public interface QueryResponse
      */
     Collection<? extends IndexEntry> getMatchingEntries();
 
+    /**
+     * Gets the total number of index entries matching the query, which can be
+     * larger than the number of entries in this response if the query was
+     * paged.
+     * 
+     * @return The total number of index entries matching the query.
+     */
+    long getTotalCount();
+
     /**
      * Gets the query response native to the underlying search technology.
      * 
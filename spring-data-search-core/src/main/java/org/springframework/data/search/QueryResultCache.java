@@ -0,0 +1,54 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search;
+
+/**
+ * Contract for a cache of query responses, which a {@link SearchTemplate}
+ * consults before sending a query to the search engine. Keys identify both
+ * the query and the state of the search index when it was performed, so an
+ * implementation only has to bound the memory it uses; it never has to
+ * invalidate entries. Cached responses are shared by all callers performing
+ * the same query and must not be modified. Implementations must be
+ * thread-safe.
+ * 
+ * @author Manish Baxi
+ * @see SearchTemplate#setQueryResultCache(QueryResultCache)
+ */
+public interface QueryResultCache
+{
+    /**
+     * Removes all cached responses.
+     */
+    void clear();
+
+    /**
+     * Gets a cached response.
+     * 
+     * @param key The key for the query.
+     * @return The cached {@link QueryResponse}, or <code>null</code> if there
+     *         is none.
+     */
+    QueryResponse get(String key);
+
+    /**
+     * Caches a response.
+     * 
+     * @param key The key for the query.
+     * @param response The {@link QueryResponse} to cache.
+     */
+    void put(String key, QueryResponse response);
+}
@@ -17,6 +17,10 @@
 package org.springframework.data.search;
 
 import java.util.Collection;
+import java.util.Iterator;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 /**
  * Contract specifying a basic set of search operations.
@@ -78,6 +82,29 @@ public interface SearchOperations
      */
     <T> Collection<String> index(T... beans);
 
+    /**
+     * Adds a stream of indexable objects to a search index, converting and
+     * sending them in chunks so that only one chunk is held in memory at a
+     * time. This makes it suitable for reindexing very large data sets, for
+     * example from a database cursor. Objects that cannot be converted or sent
+     * are reported in the returned summary instead of stopping the stream.
+     * 
+     * @param beans The objects to index.
+     * @return An {@link IndexSummary} of the indexed and failed objects.
+     */
+    <T> IndexSummary index(Iterator<T> beans);
+
+    /**
+     * Adds a stream of indexable objects to a search index, converting and
+     * sending them in chunks so that only one chunk is held in memory at a
+     * time.
+     * 
+     * @param beans The objects to index.
+     * @return An {@link IndexSummary} of the indexed and failed objects.
+     * @see #index(Iterator)
+     */
+    <T> IndexSummary index(Iterable<T> beans);
+
     /**
      * Performs a query on the underlying search engine.
      * 
@@ -107,7 +134,8 @@ public interface SearchOperations
     <T> Collection<T> query(String query, QueryResponseExtractor<T> qre);
 
     /**
-     * Performs a query on the underlying search engine.
+     * Performs a query on the underlying search engine. Only the indexed fields
+     * of <code>clazz</code> are requested from the search engine.
      * 
      * @param query The query to be performed.
      * @param clazz The {@link Class} for the search results.
@@ -115,6 +143,57 @@ public interface SearchOperations
      */
     <T> Collection<T> query(String query, Class<T> clazz);
 
+    /**
+     * Performs a query on the underlying search engine, returning a single page
+     * of the matching search index entries.
+     * 
+     * @param query The query to be performed.
+     * @param pageable The page to return, along with any sort order. If
+     *            <code>null</code>, the default page of the search engine is
+     *            returned.
+     * @return A {@link QueryResponse} holding the search index entries on the
+     *         requested page, along with the total number of matching entries.
+     */
+    QueryResponse query(String query, Pageable pageable);
+
+    /**
+     * Performs a query on the underlying search engine, returning only
+     * specific fields of a single page of the matching search index entries.
+     * 
+     * @param query The query to be performed.
+     * @param pageable The page to return, along with any sort order. If
+     *            <code>null</code>, the default page of the search engine is
+     *            returned.
+     * @param fields The names of the fields to return. If none are specified,
+     *            all stored fields are returned.
+     * @return A {@link QueryResponse} holding the search index entries on the
+     *         requested page, along with the total number of matching entries.
+     */
+    QueryResponse query(String query, Pageable pageable, String... fields);
+
+    /**
+     * Performs a query on the underlying search engine, returning a single page
+     * of results.
+     * 
+     * @param query The query to be performed.
+     * @param pageable The page to return, along with any sort order.
+     * @param qre An {@link IndexEntryMapper}.
+     * @return A {@link Page} of objects.
+     */
+    <T> Page<T> query(String query, Pageable pageable, IndexEntryMapper<T> qre);
+
+    /**
+     * Performs a query on the underlying search engine, returning a single page
+     * of results. Only the indexed fields of <code>clazz</code> are requested
+     * from the search engine.
+     * 
+     * @param query The query to be performed.
+     * @param pageable The page to return, along with any sort order.
+     * @param clazz The {@link Class} for the search results.
+     * @return A {@link Page} of objects.
+     */
+    <T> Page<T> query(String query, Pageable pageable, Class<T> clazz);
+
     /**
      * Performs a query on the underlying search engine, along with dynamic
      * parameter values for the query.
@@ -150,7 +229,8 @@ public interface SearchOperations
 
     /**
      * Performs a query on the underlying search engine, along with dynamic
-     * parameter values for the query.
+     * parameter values for the query. Only the indexed fields of
+     * <code>clazz</code> are requested from the search engine.
      * 
      * @param query The query to be performed.
      * @param params The query parameters.
@@ -159,6 +239,58 @@ public interface SearchOperations
      */
     <T> Collection<T> query(String query, Object[] params, Class<T> clazz);
 
+    /**
+     * Performs a query on the underlying search engine without waiting for it
+     * to complete, returning a single page of the matching search index
+     * entries. Independent queries performed this way run concurrently.
+     * 
+     * @param query The query to be performed.
+     * @param pageable The page to return, along with any sort order. If
+     *            <code>null</code>, the default page of the search engine is
+     *            returned.
+     * @return A {@link QueryFuture} for the {@link QueryResponse}.
+     */
+    QueryFuture<QueryResponse> queryAsync(String query, Pageable pageable);
+
+    /**
+     * Performs a query on the underlying search engine without waiting for it
+     * to complete. Only the indexed fields of <code>clazz</code> are requested
+     * from the search engine.
+     * 
+     * @param query The query to be performed.
+     * @param clazz The {@link Class} for the search results.
+     * @return A {@link QueryFuture} for a {@link Collection} of objects.
+     */
+    <T> QueryFuture<Collection<T>> queryAsync(String query, Class<T> clazz);
+
+    /**
+     * Performs a query on the underlying search engine without waiting for it
+     * to complete, returning a single page of results. Only the indexed fields
+     * of <code>clazz</code> are requested from the search engine.
+     * 
+     * @param query The query to be performed.
+     * @param pageable The page to return, along with any sort order.
+     * @param clazz The {@link Class} for the search results.
+     * @return A {@link QueryFuture} for a {@link Page} of objects.
+     */
+    <T> QueryFuture<Page<T>> queryAsync(String query, Pageable pageable, Class<T> clazz);
+
+    /**
+     * Iterates over all the results of a query, fetching them from the
+     * underlying search engine in batches. Unlike paging through results with
+     * {@link #query(String, Pageable, Class)}, the cost of fetching a batch
+     * does not grow with its position in the results, which makes this
+     * suitable for exporting or checking entire indices. Results are returned
+     * in the order of their unique identifiers. Only the indexed fields of
+     * <code>clazz</code> are requested from the search engine.
+     * 
+     * @param query The query to be performed.
+     * @param batchSize The number of results to fetch at a time.
+     * @param clazz The {@link Class} for the search results.
+     * @return An {@link Iterator} over all the results of the query.
+     */
+    <T> Iterator<T> scan(String query, int batchSize, Class<T> clazz);
+
     /**
      * Deletes a single index entry specified by its unique identifier.
      * 
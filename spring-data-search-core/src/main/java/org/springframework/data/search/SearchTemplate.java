@@ -16,24 +16,45 @@
 
 package org.springframework.data.search;
 
-import java.lang.reflect.Field;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.data.search.annotation.Indexed;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.search.IndexSummary.Failure;
+import org.springframework.data.search.core.AccessorStrategy;
+import org.springframework.data.search.core.GeneratedMappings;
 import org.springframework.data.search.core.IndexEntryMapperQueryResponseExtractor;
+import org.springframework.data.search.core.IndexedFieldAccessor;
 import org.springframework.data.search.core.IndexedFieldIndexEntryMapper;
+import org.springframework.data.search.core.MappingMetadata;
 import org.springframework.data.search.core.QueryBuilder;
+import org.springframework.data.search.core.QueryFutureTask;
 import org.springframework.data.search.core.SearchExceptionTranslator;
 import org.springframework.util.Assert;
-import org.springframework.util.StringUtils;
 
 /**
  * Primary implementation of common routines in {@link SearchOperations}.
@@ -43,9 +64,30 @@ import org.springframework.util.StringUtils;
  */
 public abstract class SearchTemplate implements SearchOperations, InitializingBean
 {
-    private static final Logger       LOGGER              = LoggerFactory.getLogger(SearchTemplate.class);
+    private static final Logger       LOGGER               = LoggerFactory.getLogger(SearchTemplate.class);
+
+    private AccessorStrategy          accessorStrategy     = AccessorStrategy.REFLECTION;
+    private Executor                  conversionExecutor;
+    private final ThreadPoolExecutor  defaultExecutor      = createDefaultExecutor();
+    private SearchExceptionTranslator exceptionTranslator  = new SearchExceptionTranslator();
+    private int                       indexChunkSize       = 1000;
+    private boolean                   lazyMapping;
+    private boolean                   orderedConversion;
+    private Executor                  queryExecutor;
+    private QueryResultCache          queryResultCache;
+    private boolean                   useGeneratedMappings;
+    private final AtomicLong          writeGeneration      = new AtomicLong();
 
-    private SearchExceptionTranslator exceptionTranslator = new SearchExceptionTranslator();
+    /**
+     * Sets up the default executor as the one on which asynchronous queries
+     * are performed.
+     * 
+     * @see #getDefaultExecutor()
+     */
+    protected SearchTemplate()
+    {
+        this.queryExecutor = this.defaultExecutor;
+    }
 
     /**
      * Builds an index entry for an indexable object.
@@ -93,7 +135,19 @@ public abstract class SearchTemplate implements SearchOperations, InitializingBe
     @Override
     public void afterPropertiesSet() throws Exception
     {
+        Assert.notNull(this.getAccessorStrategy(), "Accessor strategy cannot be null!");
         Assert.notNull(this.getExceptionTranslator(), "Exception translator cannot be null!");
+        Assert.notNull(this.queryExecutor, "Query executor cannot be null!");
+    }
+
+    /**
+     * Gets the strategy used for reading and writing indexed fields.
+     * 
+     * @return The strategy used for reading and writing indexed fields.
+     */
+    public final AccessorStrategy getAccessorStrategy()
+    {
+        return this.accessorStrategy;
     }
 
     /**
@@ -106,6 +160,17 @@ public abstract class SearchTemplate implements SearchOperations, InitializingBe
         return this.exceptionTranslator;
     }
 
+    /**
+     * Gets the cache of query responses for this instance.
+     * 
+     * @return The {@link QueryResultCache}, or <code>null</code> if query
+     *         responses are not cached.
+     */
+    public final QueryResultCache getQueryResultCache()
+    {
+        return this.queryResultCache;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -121,14 +186,7 @@ public abstract class SearchTemplate implements SearchOperations, InitializingBe
     @Override
     public <T> Collection<String> index(final Collection<T> beans)
     {
-        final List<IndexEntry> entries = new ArrayList<IndexEntry>(beans.size());
-
-        for (T bean : beans)
-        {
-            entries.add(this.createIndexEntry(bean));
-        }
-
-        return this.add(entries);
+        return this.indexChunks(beans, true);
     }
 
     /**
@@ -140,6 +198,84 @@ public abstract class SearchTemplate implements SearchOperations, InitializingBe
         return this.index(Arrays.asList(beans));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> IndexSummary index(final Iterable<T> beans)
+    {
+        Assert.notNull(beans, "Iterable of beans must not be null");
+
+        return this.index(beans.iterator());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> IndexSummary index(final Iterator<T> beans)
+    {
+        Assert.notNull(beans, "Iterator of beans must not be null");
+
+        final int chunkSize = this.indexChunkSize;
+        final List<IndexEntry> entries = new ArrayList<IndexEntry>(chunkSize);
+        final List<String> ids = new ArrayList<String>(chunkSize);
+        final long[] positions = new long[chunkSize];
+        final List<Failure> failures = new ArrayList<Failure>();
+        long failedCount = 0;
+        long indexedCount = 0;
+        long position = 0;
+        boolean sent = false;
+
+        while (beans.hasNext())
+        {
+            final T bean = beans.next();
+            final String id = bean instanceof Indexable ? ((Indexable) bean).getId() : null;
+            try
+            {
+                positions[entries.size()] = position;
+                entries.add(this.createIndexEntry(bean));
+                ids.add(id);
+            }
+            catch (RuntimeException e)
+            {
+                ++failedCount;
+                recordFailure(failures, new Failure(position, id, e));
+            }
+            ++position;
+
+            final boolean last = !beans.hasNext();
+            if (entries.size() == chunkSize || (last && (sent || !entries.isEmpty())))
+            {
+                try
+                {
+                    this.addChunk(entries, last);
+
+                    indexedCount += entries.size();
+                }
+                catch (RuntimeException e)
+                {
+                    failedCount += entries.size();
+                    for (int i = 0; i < entries.size(); ++i)
+                    {
+                        recordFailure(failures, new Failure(positions[i], ids.get(i), e));
+                    }
+                }
+
+                sent = true;
+                entries.clear();
+                ids.clear();
+            }
+        }
+
+        if (LOGGER.isDebugEnabled())
+        {
+            LOGGER.debug("Indexed stream of beans [" + indexedCount + " indexed, " + failedCount + " failed]");
+        }
+
+        return new IndexSummary(indexedCount, failedCount, failures);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -164,7 +300,7 @@ public abstract class SearchTemplate implements SearchOperations, InitializingBe
     @Override
     public <T> Collection<T> query(final String query, final IndexEntryMapper<T> qre)
     {
-        return this.query(query, null, new IndexEntryMapperQueryResponseExtractor<T>(qre));
+        return this.query(query, null, new IndexEntryMapperQueryResponseExtractor<T>(qre, this.lazyMapping));
     }
 
     /**
@@ -173,7 +309,38 @@ public abstract class SearchTemplate implements SearchOperations, InitializingBe
     @Override
     public <T> Collection<T> query(final String query, Class<T> clazz)
     {
-        return this.query(query, new IndexedFieldIndexEntryMapper<T>(clazz));
+        return this.query(query, (Object[]) null, clazz);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> Page<T> query(final String query, final Pageable pageable, final IndexEntryMapper<T> qre)
+    {
+        Assert.notNull(query, "Query must not be null");
+        Assert.notNull(qre, "IndexEntryMapper must not be null");
+        if (LOGGER.isDebugEnabled())
+        {
+            LOGGER.debug("Executing query [" + query + "] for page [" + pageable + "]");
+        }
+
+        return this.toPage(this.query(query, pageable), pageable, qre);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> Page<T> query(final String query, final Pageable pageable, final Class<T> clazz)
+    {
+        Assert.notNull(query, "Query must not be null");
+        if (LOGGER.isDebugEnabled())
+        {
+            LOGGER.debug("Executing query [" + query + "] for page [" + pageable + "]");
+        }
+
+        return this.toPage(this.query(query, pageable, this.getIndexedFieldNames(clazz)), pageable, this.createIndexEntryMapper(clazz));
     }
 
     /**
@@ -198,7 +365,7 @@ public abstract class SearchTemplate implements SearchOperations, InitializingBe
     @Override
     public <T> Collection<T> query(final String query, final Object[] params, final IndexEntryMapper<T> qre)
     {
-        return query(query, params, new IndexEntryMapperQueryResponseExtractor<T>(qre));
+        return query(query, params, new IndexEntryMapperQueryResponseExtractor<T>(qre, this.lazyMapping));
     }
 
     /**
@@ -207,7 +374,101 @@ public abstract class SearchTemplate implements SearchOperations, InitializingBe
     @Override
     public <T> Collection<T> query(String query, Object[] params, Class<T> clazz)
     {
-        return this.query(query, params, new IndexedFieldIndexEntryMapper<T>(clazz));
+        Assert.notNull(query, "Query must not be null");
+        if (LOGGER.isDebugEnabled())
+        {
+            LOGGER.debug("Executing query [" + query + "]");
+        }
+
+        final QueryResponse response = this.query(QueryBuilder.resolveParams(query, params), null, this.getIndexedFieldNames(clazz));
+
+        return new IndexEntryMapperQueryResponseExtractor<T>(this.createIndexEntryMapper(clazz), this.lazyMapping).extractData(response);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see #setQueryExecutor(Executor)
+     */
+    @Override
+    public QueryFuture<QueryResponse> queryAsync(final String query, final Pageable pageable)
+    {
+        return this.submit(new Callable<QueryResponse>()
+        {
+            @Override
+            public QueryResponse call()
+            {
+                return SearchTemplate.this.query(query, pageable);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see #setQueryExecutor(Executor)
+     */
+    @Override
+    public <T> QueryFuture<Collection<T>> queryAsync(final String query, final Class<T> clazz)
+    {
+        return this.submit(new Callable<Collection<T>>()
+        {
+            @Override
+            public Collection<T> call()
+            {
+                return SearchTemplate.this.query(query, clazz);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see #setQueryExecutor(Executor)
+     */
+    @Override
+    public <T> QueryFuture<Page<T>> queryAsync(final String query, final Pageable pageable, final Class<T> clazz)
+    {
+        return this.submit(new Callable<Page<T>>()
+        {
+            @Override
+            public Page<T> call()
+            {
+                return SearchTemplate.this.query(query, pageable, clazz);
+            }
+        });
+    }
+
+    /**
+     * Sets the strategy used for reading and writing indexed fields. Defaults
+     * to {@link AccessorStrategy#REFLECTION}.
+     * 
+     * @param accessorStrategy The strategy used for reading and writing indexed
+     *            fields.
+     */
+    public final void setAccessorStrategy(final AccessorStrategy accessorStrategy)
+    {
+        this.accessorStrategy = accessorStrategy;
+    }
+
+    /**
+     * Sets the executor on which objects are converted into search index
+     * entries when indexing a collection larger than the index chunk size. The
+     * collection is split into chunks that are converted in parallel, and each
+     * chunk is sent to the search engine as soon as it has been converted,
+     * while later chunks are still being converted. At most one more chunk
+     * than the executor has threads is converted ahead of sending, to bound
+     * memory use. If <code>null</code>, which is the default, objects are
+     * converted on the calling thread.
+     * 
+     * @param conversionExecutor The {@link Executor} for converting objects,
+     *            such as a {@link ForkJoinPool}.
+     * @see #setIndexChunkSize(int)
+     * @see #setOrderedConversion(boolean)
+     */
+    public final void setConversionExecutor(final Executor conversionExecutor)
+    {
+        this.conversionExecutor = conversionExecutor;
     }
 
     /**
@@ -220,6 +481,232 @@ public abstract class SearchTemplate implements SearchOperations, InitializingBe
         this.exceptionTranslator = exceptionTranslator;
     }
 
+    /**
+     * Sets the number of objects converted and sent to the search engine at a
+     * time when indexing a stream of objects. Defaults to 1000.
+     * 
+     * @param indexChunkSize The number of objects per chunk. Must be positive.
+     * @see #index(Iterator)
+     */
+    public final void setIndexChunkSize(final int indexChunkSize)
+    {
+        Assert.isTrue(indexChunkSize > 0, "Index chunk size must be positive");
+
+        this.indexChunkSize = indexChunkSize;
+    }
+
+    /**
+     * Sets whether search index entries should be converted into objects only
+     * when the objects are first accessed. Lazily converted results are
+     * unmodifiable. Defaults to <code>false</code>.
+     * 
+     * @param lazyMapping Whether search index entries should be converted on
+     *            first access.
+     */
+    public final void setLazyMapping(final boolean lazyMapping)
+    {
+        this.lazyMapping = lazyMapping;
+    }
+
+    /**
+     * Sets whether chunks converted in parallel must be sent to the search
+     * engine in the order of the indexed collection. If not, each chunk is
+     * sent as soon as it has been converted, and the returned identifiers are
+     * in the order in which the chunks were sent. Defaults to
+     * <code>false</code>.
+     * 
+     * @param orderedConversion Whether chunks should be sent in order.
+     * @see #setConversionExecutor(Executor)
+     */
+    public final void setOrderedConversion(final boolean orderedConversion)
+    {
+        this.orderedConversion = orderedConversion;
+    }
+
+    /**
+     * Sets a cache of query responses to consult before sending queries to the
+     * search engine. Responses are cached by the resolved query and by the
+     * write generation of this instance, which is moved on by every addition,
+     * deletion, commit and refresh, so that a response obtained before the
+     * last write is never returned. Writes made by other clients are not seen
+     * until the next write through this instance. If <code>null</code>, which
+     * is the default, responses are not cached.
+     * 
+     * @param queryResultCache A {@link QueryResultCache}.
+     */
+    public final void setQueryResultCache(final QueryResultCache queryResultCache)
+    {
+        this.queryResultCache = queryResultCache;
+    }
+
+    /**
+     * Sets the executor on which asynchronous queries are performed. Defaults
+     * to a pool of one daemon thread per processor, which queues further
+     * queries rather than block; a query that has not started when a caller
+     * waits for its result is performed on the calling thread.
+     * 
+     * @param queryExecutor An {@link Executor}.
+     * @see #queryAsync(String, Pageable)
+     */
+    public final void setQueryExecutor(final Executor queryExecutor)
+    {
+        Assert.notNull(queryExecutor, "Query executor cannot be null");
+
+        this.queryExecutor = queryExecutor;
+    }
+
+    /**
+     * Sets whether mappers and writers generated at compile time for indexable
+     * classes should be used in preference to {@link MappingMetadata}. Defaults
+     * to <code>false</code>; enable it once the annotation processor of the
+     * <code>spring-data-search-processor</code> module runs when compiling the
+     * indexable classes. Generated mappers and writers read and write private
+     * fields through their getters and setters, which the accessors used
+     * otherwise never call.
+     * 
+     * @param useGeneratedMappings Whether generated mappers and writers should
+     *            be used.
+     * @see GeneratedMappings
+     */
+    public final void setUseGeneratedMappings(final boolean useGeneratedMappings)
+    {
+        this.useGeneratedMappings = useGeneratedMappings;
+    }
+
+    /**
+     * Sends one chunk of entries while indexing a stream of objects, or while
+     * indexing a collection of objects converted in parallel. Search
+     * engines that commit after every addition may override this method to
+     * commit only once the last chunk has been sent.
+     * 
+     * @param entries The entries to add, which may be empty for the last
+     *            chunk.
+     * @param last Whether this is the last chunk of the stream.
+     * @return The unique identifiers of the added entries.
+     */
+    protected Collection<String> addChunk(final List<IndexEntry> entries, final boolean last)
+    {
+        return this.add(entries);
+    }
+
+    /**
+     * Converts a collection of objects into search index entries and adds
+     * them to the search index through {@link #addChunk(List, boolean)},
+     * converting them in parallel on the conversion executor if one has been
+     * set and the collection is larger than a chunk.
+     * 
+     * @param beans The objects to index.
+     * @param last Whether the last chunk should be sent as the last chunk of
+     *            the stream, so that it may be committed.
+     * @return The unique identifiers of the indexed objects.
+     * @see #setConversionExecutor(Executor)
+     */
+    protected <T> Collection<String> indexChunks(final Collection<T> beans, final boolean last)
+    {
+        if (this.conversionExecutor != null && beans.size() > this.indexChunkSize)
+        {
+            return this.indexInParallel(beans, last);
+        }
+
+        final List<IndexEntry> entries = new ArrayList<IndexEntry>(beans.size());
+
+        for (T bean : beans)
+        {
+            entries.add(this.createIndexEntry(bean));
+        }
+
+        return this.addChunk(entries, last);
+    }
+
+    /**
+     * Gets the current write generation, to be included in the keys of cached
+     * query responses.
+     * 
+     * @return The current write generation.
+     * @see #setQueryResultCache(QueryResultCache)
+     */
+    protected final long getWriteGeneration()
+    {
+        return this.writeGeneration.get();
+    }
+
+    /**
+     * Gets the executor on which background work is performed unless another
+     * executor has been set for it. The executor runs one thread per processor
+     * and queues further tasks, so that submitting a task never blocks; its
+     * threads are daemon threads, which stop once they have been idle for a
+     * minute. Callers waiting for a task that has not started yet should run
+     * it themselves rather than block, so that tasks which wait for further
+     * tasks cannot use up every thread.
+     * 
+     * @return An {@link Executor}.
+     * @see #shutdownDefaultExecutor()
+     */
+    protected final Executor getDefaultExecutor()
+    {
+        return this.defaultExecutor;
+    }
+
+    /**
+     * Stops the default executor once the tasks already submitted to it have
+     * completed. Tasks submitted afterwards are rejected.
+     * 
+     * @see #getDefaultExecutor()
+     */
+    protected final void shutdownDefaultExecutor()
+    {
+        this.defaultExecutor.shutdown();
+    }
+
+    /**
+     * Moves on the write generation, so that query responses cached so far are
+     * no longer returned. Implementations call this method whenever they
+     * change the search index, both before the change is sent and once it has
+     * become visible, so that a response obtained while the change was in
+     * progress is not returned afterwards either.
+     */
+    protected final void incrementWriteGeneration()
+    {
+        this.writeGeneration.incrementAndGet();
+    }
+
+    /**
+     * Creates a mapper for converting search index entries into objects of a
+     * specific type.
+     * 
+     * @param clazz The type of objects to convert search index entries into.
+     * @return An {@link IndexEntryMapper}.
+     */
+    protected <T> IndexEntryMapper<T> createIndexEntryMapper(final Class<T> clazz)
+    {
+        if (this.useGeneratedMappings)
+        {
+            final IndexEntryMapper<T> mapper = GeneratedMappings.getMapper(clazz);
+            if (mapper != null)
+            {
+                return mapper;
+            }
+        }
+
+        return new IndexedFieldIndexEntryMapper<T>(clazz, this.accessorStrategy);
+    }
+
+    /**
+     * Converts a query response holding a single page of search index entries
+     * into a page of objects.
+     * 
+     * @param response The {@link QueryResponse} to convert.
+     * @param pageable The requested page.
+     * @param mapper The {@link IndexEntryMapper} to convert entries with.
+     * @return A {@link Page} of objects.
+     */
+    private <T> Page<T> toPage(final QueryResponse response, final Pageable pageable, final IndexEntryMapper<T> mapper)
+    {
+        final Collection<T> content = new IndexEntryMapperQueryResponseExtractor<T>(mapper, this.lazyMapping).extractData(response);
+
+        return new PageImpl<T>(content instanceof List ? (List<T>) content : new ArrayList<T>(content), pageable, response.getTotalCount());
+    }
+
     /**
      * Finds indexable fields in an object and create a search index entry using
      * the fields.
@@ -227,42 +714,232 @@ public abstract class SearchTemplate implements SearchOperations, InitializingBe
      * @param bean The object to index.
      * @return An {@link IndexEntry}.
      */
+    @SuppressWarnings("unchecked")
     protected <T> IndexEntry createIndexEntry(final T bean)
     {
-        // TODO: Find out indexable fields for each class only once per JVM run.
-        final Map<String, Object> results = new HashMap<String, Object>();
-        final Field[] fields = bean.getClass().getDeclaredFields();
-        for (Field field : fields)
+        if (this.useGeneratedMappings)
         {
-            field.setAccessible(true);
-            Indexed annotation = field.getAnnotation(Indexed.class);
-            if (annotation != null)
+            final IndexEntryWriter<T> writer = (IndexEntryWriter<T>) GeneratedMappings.getWriter(bean.getClass());
+            if (writer != null)
             {
-                try
+                final IndexEntry document = this.buildIndexEntry();
+                writer.write(bean, document);
+
+                return document;
+            }
+        }
+
+        final MappingMetadata metadata = MappingMetadata.forClass(bean.getClass());
+        if (!metadata.hasIndexedFields())
+        {
+            throw new InvalidIndexEntryException("The document has no indexed field!");
+        }
+
+        final IndexedFieldAccessor accessor = metadata.getAccessor(this.accessorStrategy);
+        final IndexEntry document = this.buildIndexEntry();
+        for (int i = 0; i < metadata.getFieldCount(); ++i)
+        {
+            document.put(metadata.getFieldName(i), accessor.getValue(bean, i));
+        }
+
+        return document;
+    }
+
+    /**
+     * Gets the names of the search index fields into which the indexed fields
+     * of a class are stored, so that only those fields need to be requested
+     * from the search engine.
+     * 
+     * @param clazz The class for which search index field names are required.
+     * @return The search index field names for <code>clazz</code>, which is
+     *         empty if the class does not have indexed fields.
+     */
+    protected String[] getIndexedFieldNames(final Class<?> clazz)
+    {
+        return MappingMetadata.forClass(clazz).getFieldNames();
+    }
+
+    /**
+     * Converts a collection of objects into search index entries on the
+     * conversion executor, one chunk per task, sending each chunk as soon as
+     * it is ready and keeping a bounded number of chunks in flight.
+     */
+    private <T> Collection<String> indexInParallel(final Collection<T> beans, final boolean last)
+    {
+        final int chunkSize = this.indexChunkSize;
+        final int chunkCount = (beans.size() + chunkSize - 1) / chunkSize;
+        final boolean ordered = this.orderedConversion;
+        final CompletionService<List<IndexEntry>> completionService = ordered ? null : new ExecutorCompletionService<List<IndexEntry>>(
+                this.conversionExecutor);
+        final Iterator<T> iterator = beans.iterator();
+        final List<String> ids = new ArrayList<String>(beans.size());
+        final Queue<Future<List<IndexEntry>>> pending = new ArrayDeque<Future<List<IndexEntry>>>();
+
+        try
+        {
+            final int window = Math.min(chunkCount, getParallelism(this.conversionExecutor) + 1);
+            for (int i = 0; i < window; ++i)
+            {
+                pending.add(this.convert(nextChunk(iterator, chunkSize), completionService));
+            }
+
+            for (int sent = 0; sent < chunkCount; ++sent)
+            {
+                final Future<List<IndexEntry>> future = ordered ? pending.remove() : completionService.take();
+                if (!ordered)
                 {
-                    String fieldName = annotation.fieldName();
-                    if (!StringUtils.hasText(fieldName))
-                    {
-                        fieldName = field.getName();
-                    }
-                    results.put(fieldName, field.get(bean));
+                    pending.remove(future);
                 }
-                catch (Exception e)
+
+                final List<IndexEntry> entries = future.get();
+                if (iterator.hasNext())
                 {
-                    // TODO: Decide whether to raise an exception here.
+                    pending.add(this.convert(nextChunk(iterator, chunkSize), completionService));
                 }
+
+                ids.addAll(this.addChunk(entries, last && sent == chunkCount - 1));
             }
         }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
 
-        if (results.isEmpty())
+            throw new IllegalStateException("Interrupted while converting beans for indexing.", e);
+        }
+        catch (ExecutionException e)
         {
-            throw new InvalidIndexEntryException("The document has no indexed field!");
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException("Unable to convert beans for indexing.", e.getCause());
+        }
+        finally
+        {
+            for (Future<List<IndexEntry>> future : pending)
+            {
+                future.cancel(false);
+            }
         }
 
-        IndexEntry document = this.buildIndexEntry();
-        document.putAll(results);
+        return ids;
+    }
 
-        return document;
+    /**
+     * Starts converting a chunk of objects on the conversion executor. If a
+     * completion service is given, the conversion is submitted through it so
+     * that chunks can be taken as they complete.
+     */
+    private <T> Future<List<IndexEntry>> convert(final List<T> chunk, final CompletionService<List<IndexEntry>> completionService)
+    {
+        final Callable<List<IndexEntry>> task = new Callable<List<IndexEntry>>()
+        {
+            @Override
+            public List<IndexEntry> call()
+            {
+                final List<IndexEntry> entries = new ArrayList<IndexEntry>(chunk.size());
+                for (T bean : chunk)
+                {
+                    entries.add(SearchTemplate.this.createIndexEntry(bean));
+                }
+
+                return entries;
+            }
+        };
+
+        if (completionService != null)
+        {
+            return completionService.submit(task);
+        }
+
+        final FutureTask<List<IndexEntry>> future = new FutureTask<List<IndexEntry>>(task);
+        this.conversionExecutor.execute(future);
+
+        return future;
+    }
+
+    /**
+     * Creates a pool of one daemon thread per processor with an unbounded
+     * queue, whose threads stop once they have been idle for a minute.
+     */
+    private static ThreadPoolExecutor createDefaultExecutor()
+    {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(processors, processors, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread(final Runnable runnable)
+                    {
+                        final Thread thread = new Thread(runnable, "search-worker-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    /**
+     * Gets the number of threads an executor converts on, bounded by the
+     * number of processors so that pools with a large or unbounded maximum
+     * size (such as cached thread pools) do not convert every chunk ahead of
+     * sending it.
+     */
+    private static int getParallelism(final Executor executor)
+    {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        if (executor instanceof ForkJoinPool)
+        {
+            return Math.max(1, Math.min(processors, ((ForkJoinPool) executor).getParallelism()));
+        }
+        if (executor instanceof ThreadPoolExecutor)
+        {
+            return Math.max(1, Math.min(processors, ((ThreadPoolExecutor) executor).getMaximumPoolSize()));
+        }
+
+        return processors;
+    }
+
+    /**
+     * Takes the next chunk of objects from an iterator.
+     */
+    private static <T> List<T> nextChunk(final Iterator<T> iterator, final int chunkSize)
+    {
+        final List<T> chunk = new ArrayList<T>(chunkSize);
+        while (chunk.size() < chunkSize && iterator.hasNext())
+        {
+            chunk.add(iterator.next());
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Performs a query on the query executor.
+     */
+    private <V> QueryFuture<V> submit(final Callable<V> query)
+    {
+        final QueryFutureTask<V> future = new QueryFutureTask<V>(query);
+        this.queryExecutor.execute(future);
+
+        return future;
+    }
+
+    /**
+     * Records the details of a failure while indexing a stream of objects,
+     * unless details of enough failures have already been recorded.
+     */
+    private static void recordFailure(final List<Failure> failures, final Failure failure)
+    {
+        if (failures.size() < IndexSummary.MAX_RECORDED_FAILURES)
+        {
+            failures.add(failure);
+        }
     }
 
     protected RuntimeException potentiallyConvertCheckedException(final RuntimeException ex)
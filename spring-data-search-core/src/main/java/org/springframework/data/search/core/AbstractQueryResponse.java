@@ -29,6 +29,7 @@ public abstract class AbstractQueryResponse implements QueryResponse
 {
     private long                             elapsedTime;
     private Collection<? extends IndexEntry> matchingEntries;
+    private long                             totalCount;
 
     /**
      * {@inheritDoc}
@@ -48,6 +49,15 @@ public abstract class AbstractQueryResponse implements QueryResponse
         return this.matchingEntries;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTotalCount()
+    {
+        return this.totalCount;
+    }
+
     /**
      * Sets the total time it took to execute the query.
      * 
@@ -67,4 +77,14 @@ public abstract class AbstractQueryResponse implements QueryResponse
     {
         this.matchingEntries = entries;
     }
+
+    /**
+     * Sets the total number of index entries matching the query.
+     * 
+     * @param totalCount The total number of index entries matching the query.
+     */
+    public void setTotalCount(final long totalCount)
+    {
+        this.totalCount = totalCount;
+    }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+/**
+ * Strategies for reading and writing the indexed fields of a bean.
+ *
+ * @author Manish Baxi
+ * @see IndexedFieldAccessor
+ */
+public enum AccessorStrategy
+{
+    /**
+     * Accesses fields through {@link java.lang.reflect.Field}.
+     */
+    REFLECTION,
+
+    /**
+     * Accesses fields through {@link java.lang.invoke.MethodHandle}s.
+     */
+    METHOD_HANDLE,
+
+    /**
+     * Accesses fields through a class generated at runtime for each bean
+     * class, falling back to {@link #METHOD_HANDLE} if the class cannot be
+     * generated.
+     */
+    GENERATED
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.data.search.IndexEntryMapper;
+import org.springframework.data.search.IndexEntryWriter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Locates {@link IndexEntryMapper}s and {@link IndexEntryWriter}s generated at
+ * compile time for classes with indexed fields. A generated class lives in the
+ * same package as the class it handles and is named after it, with
+ * <code>_</code> replaced by <code>_$</code>, then <code>$</code> not
+ * following an <code>_</code> replaced by <code>_</code>, and
+ * {@link #MAPPER_SUFFIX} or {@link #WRITER_SUFFIX} appended, so that nested
+ * classes get names without <code>$</code> which still differ from those of
+ * top-level classes such as <code>Outer_Inner</code>. A generated class is
+ * only used if it handles the class it is named after. Lookups are performed
+ * once per class. This class is thread-safe.
+ * 
+ * @author Manish Baxi
+ */
+public final class GeneratedMappings
+{
+    public static final String                           MAPPER_SUFFIX = "_IndexEntryMapper";
+    public static final String                           WRITER_SUFFIX = "_IndexEntryWriter";
+
+    private static final Logger                          LOGGER        = LoggerFactory.getLogger(GeneratedMappings.class);
+    private static final ConcurrentMap<Class<?>, Object> MAPPERS       = new ConcurrentReferenceHashMap<Class<?>, Object>();
+    private static final Object                          NONE          = new Object();
+    private static final ConcurrentMap<Class<?>, Object> WRITERS       = new ConcurrentReferenceHashMap<Class<?>, Object>();
+
+    /**
+     * Prevent instantiation.
+     */
+    private GeneratedMappings()
+    {
+    }
+
+    /**
+     * Gets the name of a class generated for another class.
+     * 
+     * @param className The binary name of the class for which a class has been
+     *            generated.
+     * @param suffix {@link #MAPPER_SUFFIX} or {@link #WRITER_SUFFIX}.
+     * @return The binary name of the generated class.
+     */
+    public static String getGeneratedClassName(final String className, final String suffix)
+    {
+        final int index = className.lastIndexOf('.');
+
+        final StringBuilder name = new StringBuilder(className.substring(0, index + 1));
+        for (char c : className.substring(index + 1).toCharArray())
+        {
+            if (c == '_')
+            {
+                name.append("_$");
+            }
+            else
+            {
+                name.append(c == '$' ? '_' : c);
+            }
+        }
+
+        return name.append(suffix).toString();
+    }
+
+    /**
+     * Gets the generated mapper for a class.
+     * 
+     * @param type The class for which a mapper is required.
+     * @return The generated {@link IndexEntryMapper} for <code>type</code>, or
+     *         <code>null</code> if none has been generated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> IndexEntryMapper<T> getMapper(final Class<T> type)
+    {
+        return (IndexEntryMapper<T>) lookup(MAPPERS, type, MAPPER_SUFFIX, IndexEntryMapper.class);
+    }
+
+    /**
+     * Gets the generated writer for a class.
+     * 
+     * @param type The class for which a writer is required.
+     * @return The generated {@link IndexEntryWriter} for <code>type</code>, or
+     *         <code>null</code> if none has been generated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> IndexEntryWriter<T> getWriter(final Class<T> type)
+    {
+        return (IndexEntryWriter<T>) lookup(WRITERS, type, WRITER_SUFFIX, IndexEntryWriter.class);
+    }
+
+    /**
+     * Finds and instantiates a generated class, remembering the outcome.
+     */
+    private static Object lookup(final ConcurrentMap<Class<?>, Object> cache, final Class<?> type, final String suffix, final Class<?> contract)
+    {
+        Object instance = cache.get(type);
+        if (instance == null)
+        {
+            instance = NONE;
+
+            final String className = getGeneratedClassName(type.getName(), suffix);
+            if (ClassUtils.isPresent(className, type.getClassLoader()))
+            {
+                try
+                {
+                    final Class<?> generatedClass = ClassUtils.forName(className, type.getClassLoader());
+                    if (contract.isAssignableFrom(generatedClass) && GenericTypeResolver.resolveTypeArgument(generatedClass, contract) == type)
+                    {
+                        instance = BeanUtils.instantiate(generatedClass);
+                    }
+                    else if (LOGGER.isWarnEnabled())
+                    {
+                        LOGGER.warn(className + " does not handle " + type + ", falling back to reflection");
+                    }
+                }
+                catch (Exception e)
+                {
+                    if (LOGGER.isWarnEnabled())
+                    {
+                        LOGGER.warn("Unable to instantiate " + className + ", falling back to reflection for " + type, e);
+                    }
+                }
+                catch (LinkageError e)
+                {
+                    if (LOGGER.isWarnEnabled())
+                    {
+                        LOGGER.warn("Unable to instantiate " + className + ", falling back to reflection for " + type, e);
+                    }
+                }
+            }
+
+            final Object existing = cache.putIfAbsent(type, instance);
+            if (existing != null)
+            {
+                instance = existing;
+            }
+        }
+
+        return instance == NONE ? null : instance;
+    }
+}
@@ -36,6 +36,7 @@ import org.springframework.util.Assert;
 public class IndexEntryMapperQueryResponseExtractor<T> implements QueryResponseExtractor<T>
 {
     private final IndexEntryMapper<T> indexEntryMapper;
+    private final boolean             lazy;
 
     /**
      * Sets the converter that will perform the task of converting index entries
@@ -45,10 +46,26 @@ public class IndexEntryMapperQueryResponseExtractor<T> implements QueryResponseE
      *            converting index entries into indexable objects.
      */
     public IndexEntryMapperQueryResponseExtractor(final IndexEntryMapper<T> indexEntryMapper)
+    {
+        this(indexEntryMapper, false);
+    }
+
+    /**
+     * Sets the converter that will perform the task of converting index entries
+     * into indexable objects and whether entries should be converted only when
+     * they are accessed.
+     * 
+     * @param indexEntryMapper The converter that will perform the task of
+     *            converting index entries into indexable objects.
+     * @param lazy Whether entries should be converted on first access instead
+     *            of all at once. Lazily extracted results are unmodifiable.
+     */
+    public IndexEntryMapperQueryResponseExtractor(final IndexEntryMapper<T> indexEntryMapper, final boolean lazy)
     {
         Assert.notNull(indexEntryMapper, "DocMapper is required");
 
         this.indexEntryMapper = indexEntryMapper;
+        this.lazy = lazy;
     }
 
     /**
@@ -57,6 +74,11 @@ public class IndexEntryMapperQueryResponseExtractor<T> implements QueryResponseE
     @Override
     public Collection<T> extractData(final QueryResponse response)
     {
+        if (this.lazy)
+        {
+            return new LazyIndexEntryList<T>(response.getMatchingEntries(), this.indexEntryMapper);
+        }
+
         final List<T> results = new ArrayList<T>(response.getMatchingEntries().size());
         for (IndexEntry doc : response.getMatchingEntries())
         {
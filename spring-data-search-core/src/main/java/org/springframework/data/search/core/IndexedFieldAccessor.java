@@ -0,0 +1,57 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+/**
+ * Contract for creating beans and reading and writing their indexed fields.
+ * Fields are addressed by their position in the {@link MappingMetadata} for
+ * the bean class.
+ *
+ * @author Manish Baxi
+ * @see AccessorStrategy
+ */
+public interface IndexedFieldAccessor
+{
+    /**
+     * Gets the value of an indexed field from a bean.
+     *
+     * @param bean The bean from which the value should be read.
+     * @param index The position of the field.
+     * @return The value of the field.
+     */
+    Object getValue(Object bean, int index);
+
+    /**
+     * Creates a new bean using its no-argument constructor.
+     *
+     * @return A new bean.
+     */
+    Object newInstance();
+
+    /**
+     * Sets the value of an indexed field on a bean. <code>null</code> values
+     * are ignored for fields of primitive types. Numeric values are narrowed or
+     * widened as required for fields of primitive numeric types.
+     *
+     * @param bean The bean on which the value should be set.
+     * @param index The position of the field.
+     * @param value The value to set.
+     * @throws IllegalArgumentException If <code>value</code> cannot be assigned
+     *             to the field.
+     */
+    void setValue(Object bean, int index, Object value);
+}
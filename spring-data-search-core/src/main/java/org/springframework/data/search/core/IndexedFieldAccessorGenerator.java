@@ -0,0 +1,395 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Generates an {@link IndexedFieldAccessor} class for a bean class at runtime.
+ * The generated class calls the public no-argument constructor directly and
+ * reads and writes public fields directly, delegating to a
+ * {@link MethodHandleIndexedFieldAccessor} for other fields, so that like the
+ * other strategies it never calls getters or setters. Primitive values are
+ * unboxed straight from the {@link Number}, {@link Boolean} or
+ * {@link Character} passed in.
+ *
+ * @author Manish Baxi
+ * @see AccessorStrategy#GENERATED
+ */
+public final class IndexedFieldAccessorGenerator implements Opcodes
+{
+    private static final String ACCESSOR_DESCRIPTOR    = Type.getDescriptor(IndexedFieldAccessor.class);
+    private static final String ACCESSOR_INTERNAL_NAME = Type.getInternalName(IndexedFieldAccessor.class);
+    private static final String CLASS_NAME_SUFFIX      = "$$IndexedFieldAccessor";
+    private static final String FALLBACK_FIELD         = "fallback";
+    private static final String GET_VALUE_DESCRIPTOR   = "(Ljava/lang/Object;I)Ljava/lang/Object;";
+    private static final Logger LOGGER                 = LoggerFactory.getLogger(IndexedFieldAccessorGenerator.class);
+    private static final String SET_VALUE_DESCRIPTOR   = "(Ljava/lang/Object;ILjava/lang/Object;)V";
+
+    /**
+     * Prevent instantiation.
+     */
+    private IndexedFieldAccessorGenerator()
+    {
+    }
+
+    /**
+     * Creates an accessor for the indexed fields of a class, generating a
+     * class if possible and falling back to a
+     * {@link MethodHandleIndexedFieldAccessor} otherwise.
+     *
+     * @param metadata The {@link MappingMetadata} for the class.
+     * @return An {@link IndexedFieldAccessor}.
+     */
+    public static IndexedFieldAccessor createAccessor(final MappingMetadata metadata)
+    {
+        final IndexedFieldAccessor fallback = new MethodHandleIndexedFieldAccessor(metadata);
+
+        if (!isGeneratable(metadata.getType()))
+        {
+            return fallback;
+        }
+
+        try
+        {
+            final String className = metadata.getType().getName() + CLASS_NAME_SUFFIX;
+            final byte[] bytes = generate(metadata, className.replace('.', '/'));
+
+            final Class<?> accessorClass = new AccessorClassLoader(metadata.getType().getClassLoader()).define(className, bytes);
+
+            return (IndexedFieldAccessor) accessorClass.getConstructor(IndexedFieldAccessor.class).newInstance(fallback);
+        }
+        catch (Exception e)
+        {
+            return useFallback(metadata, fallback, e);
+        }
+        catch (LinkageError e)
+        {
+            return useFallback(metadata, fallback, e);
+        }
+    }
+
+    /**
+     * Boxes the primitive value on top of the stack.
+     */
+    private static void box(final MethodVisitor mv, final Class<?> type)
+    {
+        final Type wrapper = Type.getType(ClassUtils.resolvePrimitiveIfNecessary(type));
+
+        mv.visitMethodInsn(INVOKESTATIC, wrapper.getInternalName(), "valueOf", Type.getMethodDescriptor(wrapper, Type.getType(type)));
+    }
+
+    /**
+     * Generates the bytecode for an accessor class.
+     */
+    private static byte[] generate(final MappingMetadata metadata, final String internalName)
+    {
+        final String owner = Type.getInternalName(metadata.getType());
+        final int count = metadata.getFieldCount();
+
+        final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_6, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalName, null, "java/lang/Object", new String[] { ACCESSOR_INTERNAL_NAME });
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, FALLBACK_FIELD, ACCESSOR_DESCRIPTOR, null, null).visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "(" + ACCESSOR_DESCRIPTOR + ")V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V");
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitFieldInsn(PUTFIELD, internalName, FALLBACK_FIELD, ACCESSOR_DESCRIPTOR);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        // getValue(Object bean, int index)
+        mv = cw.visitMethod(ACC_PUBLIC, "getValue", GET_VALUE_DESCRIPTOR, null, null);
+        mv.visitCode();
+        Label[] labels = switchOnIndex(mv, count);
+        for (int i = 0; i < count; ++i)
+        {
+            final Field field = metadata.getField(i);
+
+            mv.visitLabel(labels[i]);
+            if (isDirectlyReadable(field))
+            {
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitTypeInsn(CHECKCAST, owner);
+                mv.visitFieldInsn(GETFIELD, owner, field.getName(), Type.getDescriptor(field.getType()));
+            }
+            else
+            {
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, internalName, FALLBACK_FIELD, ACCESSOR_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ILOAD, 2);
+                mv.visitMethodInsn(INVOKEINTERFACE, ACCESSOR_INTERNAL_NAME, "getValue", GET_VALUE_DESCRIPTOR);
+                mv.visitInsn(ARETURN);
+                continue;
+            }
+
+            if (field.getType().isPrimitive())
+            {
+                box(mv, field.getType());
+            }
+            mv.visitInsn(ARETURN);
+        }
+        throwIndexOutOfBounds(mv, labels[count]);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        // newInstance()
+        mv = cw.visitMethod(ACC_PUBLIC, "newInstance", "()Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        if (!Modifier.isAbstract(metadata.getType().getModifiers()) && ClassUtils.hasConstructor(metadata.getType()))
+        {
+            mv.visitTypeInsn(NEW, owner);
+            mv.visitInsn(DUP);
+            mv.visitMethodInsn(INVOKESPECIAL, owner, "<init>", "()V");
+        }
+        else
+        {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, internalName, FALLBACK_FIELD, ACCESSOR_DESCRIPTOR);
+            mv.visitMethodInsn(INVOKEINTERFACE, ACCESSOR_INTERNAL_NAME, "newInstance", "()Ljava/lang/Object;");
+        }
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        // setValue(Object bean, int index, Object value)
+        mv = cw.visitMethod(ACC_PUBLIC, "setValue", SET_VALUE_DESCRIPTOR, null, null);
+        mv.visitCode();
+        final Label[] castStarts = new Label[count];
+        final Label[] castEnds = new Label[count];
+        final Label handler = new Label();
+        final Label done = new Label();
+        for (int i = 0; i < count; ++i)
+        {
+            if (isDirectlyWritable(metadata.getField(i)))
+            {
+                castStarts[i] = new Label();
+                castEnds[i] = new Label();
+                mv.visitTryCatchBlock(castStarts[i], castEnds[i], handler, "java/lang/ClassCastException");
+            }
+        }
+        labels = switchOnIndex(mv, count);
+        for (int i = 0; i < count; ++i)
+        {
+            final Field field = metadata.getField(i);
+            final Class<?> type = field.getType();
+
+            mv.visitLabel(labels[i]);
+            if (!isDirectlyWritable(field))
+            {
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, internalName, FALLBACK_FIELD, ACCESSOR_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ILOAD, 2);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitMethodInsn(INVOKEINTERFACE, ACCESSOR_INTERNAL_NAME, "setValue", SET_VALUE_DESCRIPTOR);
+                mv.visitInsn(RETURN);
+                continue;
+            }
+
+            if (type.isPrimitive())
+            {
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitJumpInsn(IFNULL, done);
+            }
+
+            // only the casts may throw the ClassCastException reported as an
+            // invalid argument
+            mv.visitLabel(castStarts[i]);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitTypeInsn(CHECKCAST, owner);
+            mv.visitVarInsn(ALOAD, 3);
+            mv.visitTypeInsn(CHECKCAST, type.isPrimitive() ? unboxedOwner(type) : Type.getInternalName(type));
+            mv.visitLabel(castEnds[i]);
+            if (type.isPrimitive())
+            {
+                unbox(mv, type);
+            }
+
+            mv.visitFieldInsn(PUTFIELD, owner, field.getName(), Type.getDescriptor(type));
+            mv.visitInsn(RETURN);
+        }
+        throwIndexOutOfBounds(mv, labels[count]);
+        mv.visitLabel(done);
+        mv.visitInsn(RETURN);
+        mv.visitLabel(handler);
+        mv.visitVarInsn(ASTORE, 4);
+        mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+        mv.visitInsn(DUP);
+        mv.visitVarInsn(ALOAD, 4);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/Throwable;)V");
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+
+        return cw.toByteArray();
+    }
+
+    /**
+     * Checks whether a field can be read from a generated class.
+     */
+    private static boolean isDirectlyReadable(final Field field)
+    {
+        return Modifier.isPublic(field.getModifiers()) && isVisible(field.getDeclaringClass()) && isVisible(field.getType());
+    }
+
+    /**
+     * Checks whether a field can be written from a generated class.
+     */
+    private static boolean isDirectlyWritable(final Field field)
+    {
+        return isDirectlyReadable(field) && !Modifier.isFinal(field.getModifiers());
+    }
+
+    /**
+     * Checks whether an accessor class can be generated for a class. The class
+     * and all its enclosing classes must be public.
+     */
+    private static boolean isGeneratable(final Class<?> type)
+    {
+        if (type.getClassLoader() == null || type.isInterface())
+        {
+            return false;
+        }
+
+        return isVisible(type);
+    }
+
+    /**
+     * Checks whether a type can be referenced from a generated class.
+     */
+    private static boolean isVisible(final Class<?> type)
+    {
+        Class<?> current = type;
+        while (current.isArray())
+        {
+            current = current.getComponentType();
+        }
+
+        for (; current != null; current = current.getEnclosingClass())
+        {
+            if (!current.isPrimitive() && !Modifier.isPublic(current.getModifiers()))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Emits a table switch on the field index and returns a label for each
+     * field followed by the label for an invalid index.
+     */
+    private static Label[] switchOnIndex(final MethodVisitor mv, final int count)
+    {
+        final Label[] labels = new Label[count + 1];
+        for (int i = 0; i < labels.length; ++i)
+        {
+            labels[i] = new Label();
+        }
+
+        if (count > 0)
+        {
+            final Label[] cases = new Label[count];
+            System.arraycopy(labels, 0, cases, 0, count);
+
+            mv.visitVarInsn(ILOAD, 2);
+            mv.visitTableSwitchInsn(0, count - 1, labels[count], cases);
+        }
+
+        return labels;
+    }
+
+    /**
+     * Emits code that throws an {@link IndexOutOfBoundsException}.
+     */
+    private static void throwIndexOutOfBounds(final MethodVisitor mv, final Label label)
+    {
+        mv.visitLabel(label);
+        mv.visitTypeInsn(NEW, "java/lang/IndexOutOfBoundsException");
+        mv.visitInsn(DUP);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IndexOutOfBoundsException", "<init>", "()V");
+        mv.visitInsn(ATHROW);
+    }
+
+    /**
+     * Unboxes the value on top of the stack, already cast to the type returned
+     * by {@link #unboxedOwner(Class)}, into a primitive.
+     */
+    private static void unbox(final MethodVisitor mv, final Class<?> type)
+    {
+        mv.visitMethodInsn(INVOKEVIRTUAL, unboxedOwner(type), type.getName() + "Value", "()" + Type.getDescriptor(type));
+    }
+
+    /**
+     * Gets the internal name of the class values of a primitive type are
+     * unboxed from.
+     */
+    private static String unboxedOwner(final Class<?> type)
+    {
+        return type == boolean.class || type == char.class ? Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(type)) : "java/lang/Number";
+    }
+
+    /**
+     * Logs the reason for not generating an accessor class and returns the
+     * fallback accessor.
+     */
+    private static IndexedFieldAccessor useFallback(final MappingMetadata metadata, final IndexedFieldAccessor fallback, final Throwable cause)
+    {
+        if (LOGGER.isDebugEnabled())
+        {
+            LOGGER.debug("Unable to generate an accessor class for " + metadata.getType() + ", using method handles instead.", cause);
+        }
+
+        return fallback;
+    }
+
+    /**
+     * Defines generated accessor classes as children of the class loader of
+     * the bean class.
+     */
+    private static final class AccessorClassLoader extends ClassLoader
+    {
+        AccessorClassLoader(final ClassLoader parent)
+        {
+            super(parent);
+        }
+
+        Class<?> define(final String name, final byte[] bytes)
+        {
+            return this.defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
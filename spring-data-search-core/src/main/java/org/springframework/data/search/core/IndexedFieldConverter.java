@@ -0,0 +1,355 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import java.lang.reflect.Constructor;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.search.IndexEntryMappingException;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.NumberUtils;
+
+/**
+ * Converts values read from a search index into the type of an indexed field.
+ * Values that are already of the field type are returned as is. For any other
+ * value type, a {@link Converter} is resolved the first time the value type is
+ * seen and reused afterwards, so that a schema returning, for example,
+ * {@link Long} values for an <code>int</code> field costs neither exceptions
+ * nor reflective lookups per value. Numbers for fields of primitive numeric
+ * types are only checked to fit into the field type and are then returned as
+ * is, as {@link IndexedFieldAccessor}s narrow or widen them while setting the
+ * field without creating intermediate wrapper objects. Only scalar values,
+ * such as numbers, booleans, characters, strings, dates and enumerations, are
+ * converted into strings for fields of type {@link String}. This class is
+ * thread-safe.
+ *
+ * @author Manish Baxi
+ */
+public final class IndexedFieldConverter
+{
+    private final ConcurrentMap<Class<?>, Converter<Object, Object>> converters = new ConcurrentHashMap<Class<?>, Converter<Object, Object>>();
+    private final Class<?>                                           primitiveType;
+    private final Class<?>                                           targetType;
+
+    /**
+     * Sets the type into which this instance should convert values.
+     *
+     * @param targetType The type of the indexed field. Primitive types are
+     *            converted into their wrapper types.
+     */
+    public IndexedFieldConverter(final Class<?> targetType)
+    {
+        this.primitiveType = targetType.isPrimitive() ? targetType : null;
+        this.targetType = ClassUtils.resolvePrimitiveIfNecessary(targetType);
+    }
+
+    /**
+     * Converts a value into the type of the indexed field.
+     *
+     * @param value The value to convert.
+     * @return The converted value, or <code>null</code> if <code>value</code>
+     *         is <code>null</code>. For fields of primitive numeric types, this
+     *         may be any {@link Number}.
+     * @throws IndexEntryMappingException If <code>value</code> cannot be
+     *             converted into the type of the indexed field.
+     */
+    public Object convert(final Object value)
+    {
+        if (value == null || this.targetType.isInstance(value))
+        {
+            return value;
+        }
+
+        Converter<Object, Object> converter = this.converters.get(value.getClass());
+        if (converter == null)
+        {
+            converter = this.resolveConverter(value.getClass());
+
+            final Converter<Object, Object> existing = this.converters.putIfAbsent(value.getClass(), converter);
+            if (existing != null)
+            {
+                converter = existing;
+            }
+        }
+
+        try
+        {
+            return converter.convert(value);
+        }
+        catch (IndexEntryMappingException e)
+        {
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            throw new IndexEntryMappingException("Unable to convert value " + value + " of type " + value.getClass() + " to " + this.targetType, e);
+        }
+    }
+
+    /**
+     * Gets the type into which this instance converts values.
+     *
+     * @return The type into which this instance converts values.
+     */
+    public Class<?> getTargetType()
+    {
+        return this.targetType;
+    }
+
+    /**
+     * Resolves a converter from a value type to the type of the indexed field.
+     */
+    @SuppressWarnings("unchecked")
+    private Converter<Object, Object> resolveConverter(final Class<?> sourceType)
+    {
+        if (Number.class.isAssignableFrom(sourceType) && Number.class.isAssignableFrom(this.targetType))
+        {
+            if (this.primitiveType == int.class)
+            {
+                return new NumberRangeChecker(Integer.MIN_VALUE, Integer.MAX_VALUE);
+            }
+            else if (this.primitiveType == long.class)
+            {
+                return new NumberRangeChecker(Long.MIN_VALUE, Long.MAX_VALUE);
+            }
+            else if (this.primitiveType == short.class)
+            {
+                return new NumberRangeChecker(Short.MIN_VALUE, Short.MAX_VALUE);
+            }
+            else if (this.primitiveType == byte.class)
+            {
+                return new NumberRangeChecker(Byte.MIN_VALUE, Byte.MAX_VALUE);
+            }
+            else if (this.primitiveType != null)
+            {
+                return NumberRangeChecker.UNBOUNDED;
+            }
+
+            return new NumberConverter((Class<? extends Number>) this.targetType);
+        }
+        else if (sourceType == String.class && Number.class.isAssignableFrom(this.targetType))
+        {
+            return new NumberParser((Class<? extends Number>) this.targetType);
+        }
+        else if (sourceType == String.class && this.targetType == Boolean.class)
+        {
+            return BooleanParser.INSTANCE;
+        }
+        else if (this.targetType == String.class)
+        {
+            return isScalar(sourceType) ? StringConverter.INSTANCE : new UnsupportedConverter(sourceType, this.targetType);
+        }
+
+        for (Constructor<?> constructor : this.targetType.getConstructors())
+        {
+            if (constructor.getParameterTypes().length == 1 && ClassUtils.isAssignable(constructor.getParameterTypes()[0], sourceType))
+            {
+                return new ConstructorConverter(constructor);
+            }
+        }
+
+        return new UnsupportedConverter(sourceType, this.targetType);
+    }
+
+    /**
+     * Checks whether values of a type hold a single value with a natural
+     * string representation, rather than a collection, an array or a complex
+     * object.
+     */
+    private static boolean isScalar(final Class<?> type)
+    {
+        return ClassUtils.isPrimitiveOrWrapper(type) || CharSequence.class.isAssignableFrom(type) || Number.class.isAssignableFrom(type)
+                || Date.class.isAssignableFrom(type) || Enum.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Converts a value by parsing its text as a boolean.
+     */
+    private static final class BooleanParser implements Converter<Object, Object>
+    {
+        private static final BooleanParser INSTANCE = new BooleanParser();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object convert(final Object source)
+        {
+            return Boolean.valueOf((String) source);
+        }
+    }
+
+    /**
+     * Converts a value by passing it to a constructor of the target type.
+     */
+    private static final class ConstructorConverter implements Converter<Object, Object>
+    {
+        private final Constructor<?> constructor;
+
+        private ConstructorConverter(final Constructor<?> constructor)
+        {
+            this.constructor = constructor;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object convert(final Object source)
+        {
+            return BeanUtils.instantiateClass(this.constructor, source);
+        }
+    }
+
+    /**
+     * Converts a number into another type of number.
+     */
+    private static final class NumberConverter implements Converter<Object, Object>
+    {
+        private final Class<? extends Number> targetType;
+
+        private NumberConverter(final Class<? extends Number> targetType)
+        {
+            this.targetType = targetType;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object convert(final Object source)
+        {
+            return NumberUtils.convertNumberToTargetClass((Number) source, this.targetType);
+        }
+    }
+
+    /**
+     * Returns a number as is after checking that it fits into a primitive
+     * numeric type, so that it can be narrowed or widened as the field is set.
+     */
+    private static final class NumberRangeChecker implements Converter<Object, Object>
+    {
+        private static final NumberRangeChecker UNBOUNDED = new NumberRangeChecker(Long.MIN_VALUE, Long.MAX_VALUE, false);
+
+        private final boolean                   checked;
+        private final long                      maxValue;
+        private final long                      minValue;
+
+        private NumberRangeChecker(final long minValue, final long maxValue)
+        {
+            this(minValue, maxValue, true);
+        }
+
+        private NumberRangeChecker(final long minValue, final long maxValue, final boolean checked)
+        {
+            this.checked = checked;
+            this.maxValue = maxValue;
+            this.minValue = minValue;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object convert(final Object source)
+        {
+            if (this.checked)
+            {
+                if (source instanceof BigInteger && ((BigInteger) source).bitLength() > 63)
+                {
+                    throw new IllegalArgumentException("Value " + source + " is out of range");
+                }
+
+                final long value = ((Number) source).longValue();
+                if (value < this.minValue || value > this.maxValue)
+                {
+                    throw new IllegalArgumentException("Value " + source + " is out of range");
+                }
+            }
+
+            return source;
+        }
+    }
+
+    /**
+     * Converts a value by parsing its text as a number.
+     */
+    private static final class NumberParser implements Converter<Object, Object>
+    {
+        private final Class<? extends Number> targetType;
+
+        private NumberParser(final Class<? extends Number> targetType)
+        {
+            this.targetType = targetType;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object convert(final Object source)
+        {
+            return NumberUtils.parseNumber((String) source, this.targetType);
+        }
+    }
+
+    /**
+     * Converts a value into its string representation.
+     */
+    private static final class StringConverter implements Converter<Object, Object>
+    {
+        private static final StringConverter INSTANCE = new StringConverter();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object convert(final Object source)
+        {
+            return source.toString();
+        }
+    }
+
+    /**
+     * Rejects values that cannot be converted.
+     */
+    private static final class UnsupportedConverter implements Converter<Object, Object>
+    {
+        private final Class<?> sourceType;
+        private final Class<?> targetType;
+
+        private UnsupportedConverter(final Class<?> sourceType, final Class<?> targetType)
+        {
+            this.sourceType = sourceType;
+            this.targetType = targetType;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object convert(final Object source)
+        {
+            throw new IndexEntryMappingException("Unable to convert value " + source + " of type " + this.sourceType + " to " + this.targetType);
+        }
+    }
+}
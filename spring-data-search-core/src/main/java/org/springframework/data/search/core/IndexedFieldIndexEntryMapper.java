@@ -16,19 +16,8 @@
 
 package org.springframework.data.search.core;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Constructor;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.BeanUtils;
 import org.springframework.data.search.IndexEntryMapper;
 import org.springframework.data.search.IndexEntry;
-import org.springframework.data.search.IndexEntryMappingException;
-import org.springframework.data.search.annotation.Indexed;
-import org.springframework.util.ClassUtils;
-import org.springframework.util.ReflectionUtils;
-import org.springframework.util.StringUtils;
 
 /**
  * Converts a search index entry into a object of a specific type.
@@ -38,9 +27,9 @@ import org.springframework.util.StringUtils;
  */
 public class IndexedFieldIndexEntryMapper<T> implements IndexEntryMapper<T>
 {
-    private static final Logger LOGGER = LoggerFactory.getLogger(IndexedFieldIndexEntryMapper.class);
-
-    private Class<T>            requiredType;
+    private final IndexedFieldAccessor accessor;
+    private final MappingMetadata      metadata;
+    private Class<T>                   requiredType;
 
     /**
      * Sets the type of objects into which this instance should convert search
@@ -51,6 +40,21 @@ public class IndexedFieldIndexEntryMapper<T> implements IndexEntryMapper<T>
      */
     public IndexedFieldIndexEntryMapper(final Class<T> requiredType)
     {
+        this(requiredType, AccessorStrategy.REFLECTION);
+    }
+
+    /**
+     * Sets the type of objects into which this instance should convert search
+     * index entries and the strategy to use for setting their fields.
+     * 
+     * @param requiredType The type of objects into which this instance should
+     *            convert search index entries.
+     * @param accessorStrategy The strategy to use for setting fields.
+     */
+    public IndexedFieldIndexEntryMapper(final Class<T> requiredType, final AccessorStrategy accessorStrategy)
+    {
+        this.metadata = MappingMetadata.forClass(requiredType);
+        this.accessor = this.metadata.getAccessor(accessorStrategy);
         this.requiredType = requiredType;
     }
 
@@ -60,68 +64,15 @@ public class IndexedFieldIndexEntryMapper<T> implements IndexEntryMapper<T>
     @Override
     public T map(final IndexEntry entry)
     {
-        final T bean = BeanUtils.instantiate(requiredType);
+        final T bean = this.requiredType.cast(this.accessor.newInstance());
 
-        final Field[] fields = requiredType.getDeclaredFields();
+        final MappingMetadata metadata = this.metadata;
 
-        for (Field field : fields)
+        for (int i = 0; i < metadata.getFieldCount(); ++i)
         {
-            field.setAccessible(true);
-            Indexed annotation = field.getAnnotation(Indexed.class);
-            if (annotation != null)
-            {
-                String fieldName = annotation.fieldName();
-                if (!StringUtils.hasText(fieldName))
-                {
-                    fieldName = field.getName();
-                }
-                try
-                {
-                    ReflectionUtils.setField(field, bean, this.getValue(entry.get(fieldName), field.getType()));
-                }
-                catch (IllegalArgumentException e)
-                {
-                    Class<?> clazz = entry.get(fieldName).getClass();
-                    if (LOGGER.isWarnEnabled())
-                    {
-                        LOGGER.warn("Unable to set the field " + field.getName() + " of type " + field.getType() + " with value " + entry.get(fieldName) + " of type " + clazz);
-                    }
-                    try
-                    {
-                        Constructor<?> constructor;
-                        Class<?> primitiveClass = ClassUtils.resolvePrimitiveClassName(clazz.getSimpleName().toLowerCase());
-                        if (primitiveClass != null)
-                        {
-                            constructor = field.getType().getConstructor(primitiveClass);
-                        }
-                        else
-                        {
-                            constructor = field.getType().getConstructor(clazz);
-                        }
-
-                        ReflectionUtils.setField(field, bean, constructor.newInstance(entry.get(fieldName)));
-                    }
-                    catch (Exception e1)
-                    {
-                        throw new IndexEntryMappingException("Unable to set the field " + field.getName() + " of type " + field.getType() + " with value " + entry.get(fieldName)
-                                + " of type " + clazz, e1);
-                    }
-                }
-            }
+            this.accessor.setValue(bean, i, metadata.getConverter(i).convert(entry.get(metadata.getFieldName(i))));
         }
 
         return bean;
     }
-
-    /**
-     * Gets the value for a specific field in a bean.
-     * 
-     * @param bean An object from which the value should be extracted.
-     * @param requiredType The data type for the field.
-     * @return The value of the specified field.
-     */
-    private Object getValue(final Object bean, final Class<?> requiredType)
-    {
-        return bean;
-    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import org.springframework.data.search.IndexEntry;
+import org.springframework.data.search.IndexEntryMapper;
+
+/**
+ * Unmodifiable list that converts search index entries into objects on first
+ * access. Only the entries themselves are retained, not the query response
+ * that held them, and each entry is released as soon as it has been
+ * converted. Callers that stop after the first few elements therefore pay
+ * only for the elements they have seen. This class is not thread-safe.
+ *
+ * @author Manish Baxi
+ */
+final class LazyIndexEntryList<T> extends AbstractList<T> implements RandomAccess
+{
+    private final IndexEntry[]        entries;
+    private final IndexEntryMapper<T> mapper;
+    private final Object[]            values;
+
+    /**
+     * Sets the entries to convert and the mapper to convert them with.
+     *
+     * @param entries The search index entries to convert.
+     * @param mapper The {@link IndexEntryMapper} to convert entries with.
+     */
+    LazyIndexEntryList(final Collection<? extends IndexEntry> entries, final IndexEntryMapper<T> mapper)
+    {
+        this.entries = entries.toArray(new IndexEntry[entries.size()]);
+        this.mapper = mapper;
+        this.values = new Object[this.entries.length];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(final int index)
+    {
+        final IndexEntry entry = this.entries[index];
+        if (entry != null)
+        {
+            this.values[index] = this.mapper.map(entry);
+            this.entries[index] = null;
+        }
+
+        return (T) this.values[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+        return this.values.length;
+    }
+}
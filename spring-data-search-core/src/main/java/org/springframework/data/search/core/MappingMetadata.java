@@ -0,0 +1,225 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.data.search.annotation.Indexed;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Holds the {@link Indexed} fields of a class, resolved once per JVM run. The
+ * fields and the names under which they are stored in a search index are kept
+ * in parallel arrays so that mapping a bean does not require any annotation or
+ * field lookups. This class is thread-safe.
+ *
+ * @author Manish Baxi
+ */
+public final class MappingMetadata
+{
+    private static final ConcurrentMap<Class<?>, MappingMetadata> CACHE = new ConcurrentReferenceHashMap<Class<?>, MappingMetadata>();
+
+    private final AtomicReferenceArray<IndexedFieldAccessor>      accessors = new AtomicReferenceArray<IndexedFieldAccessor>(AccessorStrategy.values().length);
+    private final IndexedFieldConverter[]                         converters;
+    private final String[]                                        fieldNames;
+    private final Field[]                                         fields;
+    private final Class<?>                                        type;
+
+    /**
+     * Resolves the indexed fields declared by a class.
+     *
+     * @param type The class whose indexed fields should be resolved.
+     */
+    private MappingMetadata(final Class<?> type)
+    {
+        final List<Field> fields = new ArrayList<Field>();
+        final List<String> fieldNames = new ArrayList<String>();
+
+        for (Field field : type.getDeclaredFields())
+        {
+            final Indexed annotation = field.getAnnotation(Indexed.class);
+            if (annotation != null)
+            {
+                String fieldName = annotation.fieldName();
+                if (!StringUtils.hasText(fieldName))
+                {
+                    fieldName = field.getName();
+                }
+
+                ReflectionUtils.makeAccessible(field);
+
+                fields.add(field);
+                fieldNames.add(fieldName);
+            }
+        }
+
+        this.fieldNames = fieldNames.toArray(new String[fieldNames.size()]);
+        this.fields = fields.toArray(new Field[fields.size()]);
+        this.type = type;
+
+        this.converters = new IndexedFieldConverter[this.fields.length];
+        for (int i = 0; i < this.fields.length; ++i)
+        {
+            this.converters[i] = new IndexedFieldConverter(this.fields[i].getType());
+        }
+    }
+
+    /**
+     * Gets the mapping metadata for a class, resolving it if the class has not
+     * been seen before.
+     *
+     * @param type The class for which mapping metadata is required.
+     * @return The {@link MappingMetadata} for <code>type</code>.
+     */
+    public static MappingMetadata forClass(final Class<?> type)
+    {
+        Assert.notNull(type, "Type must not be null");
+
+        MappingMetadata metadata = CACHE.get(type);
+        if (metadata == null)
+        {
+            metadata = new MappingMetadata(type);
+
+            final MappingMetadata existing = CACHE.putIfAbsent(type, metadata);
+            if (existing != null)
+            {
+                metadata = existing;
+            }
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Gets an accessor for the indexed fields, creating it on first use.
+     *
+     * @param strategy The {@link AccessorStrategy} to use.
+     * @return An {@link IndexedFieldAccessor}.
+     */
+    public IndexedFieldAccessor getAccessor(final AccessorStrategy strategy)
+    {
+        Assert.notNull(strategy, "Accessor strategy must not be null");
+
+        IndexedFieldAccessor accessor = this.accessors.get(strategy.ordinal());
+        if (accessor == null)
+        {
+            switch (strategy)
+            {
+            case GENERATED:
+                accessor = IndexedFieldAccessorGenerator.createAccessor(this);
+                break;
+            case METHOD_HANDLE:
+                accessor = new MethodHandleIndexedFieldAccessor(this);
+                break;
+            default:
+                accessor = new ReflectiveIndexedFieldAccessor(this);
+                break;
+            }
+
+            if (!this.accessors.compareAndSet(strategy.ordinal(), null, accessor))
+            {
+                accessor = this.accessors.get(strategy.ordinal());
+            }
+        }
+
+        return accessor;
+    }
+
+    /**
+     * Gets the converter for values of an indexed field.
+     *
+     * @param index The position of the field.
+     * @return The {@link IndexedFieldConverter} for the field at position
+     *         <code>index</code>.
+     */
+    public IndexedFieldConverter getConverter(final int index)
+    {
+        return this.converters[index];
+    }
+
+    /**
+     * Gets the number of indexed fields.
+     *
+     * @return The number of indexed fields.
+     */
+    public int getFieldCount()
+    {
+        return this.fields.length;
+    }
+
+    /**
+     * Gets an indexed field.
+     *
+     * @param index The position of the field.
+     * @return The {@link Field} at position <code>index</code>.
+     */
+    public Field getField(final int index)
+    {
+        return this.fields[index];
+    }
+
+    /**
+     * Gets the name under which an indexed field is stored in a search index.
+     *
+     * @param index The position of the field.
+     * @return The search index field name for the field at position
+     *         <code>index</code>.
+     */
+    public String getFieldName(final int index)
+    {
+        return this.fieldNames[index];
+    }
+
+    /**
+     * Gets the names under which the indexed fields are stored in a search
+     * index.
+     *
+     * @return The search index field names, in field order.
+     */
+    public String[] getFieldNames()
+    {
+        return this.fieldNames.clone();
+    }
+
+    /**
+     * Gets the class described by this instance.
+     *
+     * @return The class described by this instance.
+     */
+    public Class<?> getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * Checks whether the class has at least one indexed field.
+     *
+     * @return <code>true</code> if the class has at least one indexed field,
+     *         <code>false</code> otherwise.
+     */
+    public boolean hasIndexedFields()
+    {
+        return this.fields.length != 0;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Accesses indexed fields through {@link MethodHandle}s. Setters for fields of
+ * primitive numeric types accept any {@link Number} and narrow or widen it
+ * without creating intermediate wrapper objects.
+ *
+ * @author Manish Baxi
+ * @see AccessorStrategy#METHOD_HANDLE
+ */
+public class MethodHandleIndexedFieldAccessor implements IndexedFieldAccessor
+{
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType GETTER_TYPE      = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE      = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final MethodHandle      constructor;
+    private final MethodHandle[]    getters;
+    private final boolean[]         primitives;
+    private final MethodHandle[]    setters;
+
+    /**
+     * Sets the metadata for the fields that this instance should access.
+     *
+     * @param metadata A {@link MappingMetadata}.
+     */
+    public MethodHandleIndexedFieldAccessor(final MappingMetadata metadata)
+    {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        this.getters = new MethodHandle[metadata.getFieldCount()];
+        this.primitives = new boolean[metadata.getFieldCount()];
+        this.setters = new MethodHandle[metadata.getFieldCount()];
+
+        try
+        {
+            this.constructor = this.findConstructor(lookup, metadata.getType());
+
+            for (int i = 0; i < this.getters.length; ++i)
+            {
+                final Field field = metadata.getField(i);
+                final Class<?> type = field.getType();
+
+                MethodHandle setter = lookup.unreflectSetter(field);
+                if (type.isPrimitive() && type != boolean.class && type != char.class)
+                {
+                    final MethodHandle unboxer = lookup.findVirtual(Number.class, type.getName() + "Value", MethodType.methodType(type));
+                    setter = MethodHandles.filterArguments(setter, 1, unboxer);
+                }
+
+                this.getters[i] = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                this.primitives[i] = type.isPrimitive();
+                this.setters[i] = setter.asType(SETTER_TYPE);
+            }
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Unable to create method handles for " + metadata.getType(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getValue(final Object bean, final int index)
+    {
+        try
+        {
+            return (Object) this.getters[index].invokeExact(bean);
+        }
+        catch (RuntimeException e)
+        {
+            throw e;
+        }
+        catch (Error e)
+        {
+            throw e;
+        }
+        catch (Throwable e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object newInstance()
+    {
+        if (this.constructor == null)
+        {
+            throw new IllegalStateException("No default constructor available");
+        }
+
+        try
+        {
+            return (Object) this.constructor.invokeExact();
+        }
+        catch (RuntimeException e)
+        {
+            throw e;
+        }
+        catch (Error e)
+        {
+            throw e;
+        }
+        catch (Throwable e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setValue(final Object bean, final int index, final Object value)
+    {
+        if (value == null && this.primitives[index])
+        {
+            return;
+        }
+
+        try
+        {
+            this.setters[index].invokeExact(bean, value);
+        }
+        catch (ClassCastException e)
+        {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        catch (RuntimeException e)
+        {
+            throw e;
+        }
+        catch (Error e)
+        {
+            throw e;
+        }
+        catch (Throwable e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Finds the no-argument constructor for a class, if it has one.
+     */
+    private MethodHandle findConstructor(final MethodHandles.Lookup lookup, final Class<?> type) throws IllegalAccessException
+    {
+        final Constructor<?> constructor = ClassUtils.getConstructorIfAvailable(type);
+        if (constructor == null || Modifier.isAbstract(type.getModifiers()))
+        {
+            return null;
+        }
+
+        ReflectionUtils.makeAccessible(constructor);
+
+        return lookup.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.data.search.QueryCallback;
+import org.springframework.data.search.QueryFuture;
+
+/**
+ * {@link FutureTask} that performs a query and calls the callbacks added to it
+ * once the query completes. Waiting for the result of a query that has not
+ * started yet performs it on the waiting thread, so that queries waited for
+ * from callbacks or other queries cannot use up every thread of a bounded
+ * executor. This class is thread-safe.
+ * 
+ * @author Manish Baxi
+ */
+public class QueryFutureTask<T> extends FutureTask<T> implements QueryFuture<T>
+{
+    private List<QueryCallback<? super T>> callbacks = new ArrayList<QueryCallback<? super T>>();
+
+    /**
+     * Sets the query to perform.
+     * 
+     * @param query The {@link Callable} that performs the query.
+     */
+    public QueryFutureTask(final Callable<T> query)
+    {
+        super(query);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addCallback(final QueryCallback<? super T> callback)
+    {
+        synchronized (this)
+        {
+            if (this.callbacks != null)
+            {
+                this.callbacks.add(callback);
+
+                return;
+            }
+        }
+
+        this.complete(callback);
+    }
+
+    /**
+     * Performs the query on the calling thread unless it has already started,
+     * then waits for its result.
+     */
+    @Override
+    public T get() throws InterruptedException, ExecutionException
+    {
+        this.run();
+
+        return super.get();
+    }
+
+    /**
+     * Calls the callbacks added so far.
+     */
+    @Override
+    protected void done()
+    {
+        final List<QueryCallback<? super T>> added;
+        synchronized (this)
+        {
+            added = this.callbacks;
+            this.callbacks = null;
+        }
+
+        for (QueryCallback<? super T> callback : added)
+        {
+            this.complete(callback);
+        }
+    }
+
+    /**
+     * Tells a callback the outcome of the completed query.
+     */
+    private void complete(final QueryCallback<? super T> callback)
+    {
+        final T result;
+        try
+        {
+            result = this.get();
+        }
+        catch (CancellationException e)
+        {
+            callback.onFailure(e);
+
+            return;
+        }
+        catch (ExecutionException e)
+        {
+            callback.onFailure(e.getCause());
+
+            return;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            callback.onFailure(e);
+
+            return;
+        }
+
+        callback.onSuccess(result);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import java.lang.reflect.Field;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Accesses indexed fields through {@link Field}.
+ *
+ * @author Manish Baxi
+ * @see AccessorStrategy#REFLECTION
+ */
+public class ReflectiveIndexedFieldAccessor implements IndexedFieldAccessor
+{
+    private final Field[]  fields;
+    private final Class<?> type;
+
+    /**
+     * Sets the metadata for the fields that this instance should access.
+     *
+     * @param metadata A {@link MappingMetadata}.
+     */
+    public ReflectiveIndexedFieldAccessor(final MappingMetadata metadata)
+    {
+        this.fields = new Field[metadata.getFieldCount()];
+        for (int i = 0; i < this.fields.length; ++i)
+        {
+            this.fields[i] = metadata.getField(i);
+        }
+
+        this.type = metadata.getType();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getValue(final Object bean, final int index)
+    {
+        return ReflectionUtils.getField(this.fields[index], bean);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object newInstance()
+    {
+        return BeanUtils.instantiate(this.type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setValue(final Object bean, final int index, final Object value)
+    {
+        final Field field = this.fields[index];
+        final Class<?> type = field.getType();
+        if (type.isPrimitive())
+        {
+            if (value == null)
+            {
+                return;
+            }
+
+            try
+            {
+                if (type == int.class && value instanceof Number)
+                {
+                    field.setInt(bean, ((Number) value).intValue());
+                    return;
+                }
+                else if (type == long.class && value instanceof Number)
+                {
+                    field.setLong(bean, ((Number) value).longValue());
+                    return;
+                }
+                else if (type == double.class && value instanceof Number)
+                {
+                    field.setDouble(bean, ((Number) value).doubleValue());
+                    return;
+                }
+                else if (type == float.class && value instanceof Number)
+                {
+                    field.setFloat(bean, ((Number) value).floatValue());
+                    return;
+                }
+                else if (type == short.class && value instanceof Number)
+                {
+                    field.setShort(bean, ((Number) value).shortValue());
+                    return;
+                }
+                else if (type == byte.class && value instanceof Number)
+                {
+                    field.setByte(bean, ((Number) value).byteValue());
+                    return;
+                }
+            }
+            catch (IllegalAccessException e)
+            {
+                ReflectionUtils.handleReflectionException(e);
+            }
+        }
+
+        ReflectionUtils.setField(field, bean, value);
+    }
+}
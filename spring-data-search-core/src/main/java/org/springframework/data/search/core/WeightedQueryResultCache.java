@@ -0,0 +1,254 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.search.IndexEntry;
+import org.springframework.data.search.QueryResponse;
+import org.springframework.data.search.QueryResultCache;
+import org.springframework.util.Assert;
+
+/**
+ * Query result cache bounded by the approximate memory used by the cached
+ * responses rather than by their number, so that a few responses holding many
+ * large entries cannot crowd out the heap. When the cache is full, the least
+ * recently used responses are evicted until the new response fits. The memory
+ * used by a response is estimated from the number, names and values of the
+ * fields of its entries; subclasses may override {@link #weigh(QueryResponse)}
+ * for a better estimate. This class is thread-safe.
+ * 
+ * @author Manish Baxi
+ */
+public class WeightedQueryResultCache implements QueryResultCache
+{
+    private static final int                  ENTRY_OVERHEAD    = 64;
+    private static final int                  FIELD_OVERHEAD    = 48;
+    private static final int                  RESPONSE_OVERHEAD = 128;
+
+    private long                              evictionCount;
+    private long                              hitCount;
+    private final long                        maxWeight;
+    private long                              missCount;
+    private final Map<String, CachedResponse> responses         = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true);
+    private long                              weight;
+
+    /**
+     * Sets the maximum memory that cached responses may use.
+     * 
+     * @param maxWeight The maximum estimated size, in bytes, of all cached
+     *            responses. Must be positive.
+     */
+    public WeightedQueryResultCache(final long maxWeight)
+    {
+        Assert.isTrue(maxWeight > 0, "Maximum weight must be positive");
+
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clear()
+    {
+        this.responses.clear();
+        this.weight = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized QueryResponse get(final String key)
+    {
+        final CachedResponse cached = this.responses.get(key);
+        if (cached == null)
+        {
+            ++this.missCount;
+
+            return null;
+        }
+
+        ++this.hitCount;
+
+        return cached.response;
+    }
+
+    /**
+     * Gets the number of responses evicted to make room for others.
+     * 
+     * @return The number of evictions.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return this.evictionCount;
+    }
+
+    /**
+     * Gets the number of lookups that found a cached response.
+     * 
+     * @return The number of hits.
+     */
+    public synchronized long getHitCount()
+    {
+        return this.hitCount;
+    }
+
+    /**
+     * Gets the number of lookups that did not find a cached response.
+     * 
+     * @return The number of misses.
+     */
+    public synchronized long getMissCount()
+    {
+        return this.missCount;
+    }
+
+    /**
+     * Gets the number of cached responses.
+     * 
+     * @return The number of cached responses.
+     */
+    public synchronized int getSize()
+    {
+        return this.responses.size();
+    }
+
+    /**
+     * Gets the estimated size of all cached responses.
+     * 
+     * @return The estimated size, in bytes.
+     */
+    public synchronized long getWeight()
+    {
+        return this.weight;
+    }
+
+    /**
+     * Caches a response, evicting the least recently used responses until it
+     * fits. Responses larger than the maximum weight are not cached.
+     */
+    @Override
+    public void put(final String key, final QueryResponse response)
+    {
+        final long responseWeight = this.weigh(response) + FIELD_OVERHEAD + weighValue(key);
+        if (responseWeight > this.maxWeight)
+        {
+            return;
+        }
+
+        synchronized (this)
+        {
+            final CachedResponse previous = this.responses.put(key, new CachedResponse(response, responseWeight));
+            if (previous != null)
+            {
+                this.weight -= previous.weight;
+            }
+            this.weight += responseWeight;
+
+            final Iterator<CachedResponse> iterator = this.responses.values().iterator();
+            while (this.weight > this.maxWeight)
+            {
+                final CachedResponse eldest = iterator.next();
+                iterator.remove();
+
+                this.weight -= eldest.weight;
+                ++this.evictionCount;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String toString()
+    {
+        return "size=" + this.responses.size() + ", weight=" + this.weight + ", hits=" + this.hitCount + ", misses=" + this.missCount + ", evictions="
+                + this.evictionCount;
+    }
+
+    /**
+     * Estimates the memory used by a response.
+     * 
+     * @param response The {@link QueryResponse} to weigh.
+     * @return The estimated size of the response, in bytes.
+     */
+    protected long weigh(final QueryResponse response)
+    {
+        long responseWeight = RESPONSE_OVERHEAD;
+        if (response.getMatchingEntries() != null)
+        {
+            for (IndexEntry entry : response.getMatchingEntries())
+            {
+                responseWeight += ENTRY_OVERHEAD;
+                for (Map.Entry<String, Object> field : entry.entrySet())
+                {
+                    responseWeight += FIELD_OVERHEAD + weighValue(field.getKey()) + weighValue(field.getValue());
+                }
+            }
+        }
+
+        return responseWeight;
+    }
+
+    /**
+     * Estimates the memory used by a field value.
+     */
+    private static long weighValue(final Object value)
+    {
+        if (value == null)
+        {
+            return 0;
+        }
+        if (value instanceof CharSequence)
+        {
+            return 40 + 2 * ((CharSequence) value).length();
+        }
+        if (value instanceof Collection)
+        {
+            long valueWeight = 32;
+            for (Object element : (Collection<?>) value)
+            {
+                valueWeight += 8 + weighValue(element);
+            }
+
+            return valueWeight;
+        }
+
+        return 24;
+    }
+
+    /**
+     * A cached response and its estimated size.
+     */
+    private static final class CachedResponse
+    {
+        private final QueryResponse response;
+        private final long          weight;
+
+        private CachedResponse(final QueryResponse response, final long weight)
+        {
+            this.response = response;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *
+ * Copyright 2008-2012 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search;
+
+import org.springframework.data.search.annotation.Indexed;
+
+/**
+ * A sample POJO with fields of primitive types, some of which are reachable
+ * only through reflection, for testing field access.
+ * 
+ * @author Manish Baxi
+ */
+public class PrimitiveBean implements Indexable
+{
+    @Indexed
+    public boolean available;
+
+    @Indexed
+    private int    count;
+
+    @Indexed
+    private String id;
+
+    @Indexed
+    private double price;
+
+    @Indexed
+    private long   total;
+
+    public PrimitiveBean()
+    {
+    }
+
+    public PrimitiveBean(String id, int count, long total, double price, boolean available)
+    {
+        this.available = available;
+        this.count = count;
+        this.id = id;
+        this.price = price;
+        this.total = total;
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+
+    public void setCount(int count)
+    {
+        this.count = count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getId()
+    {
+        return id;
+    }
+
+    public void setId(String id)
+    {
+        this.id = id;
+    }
+
+    public double getPrice()
+    {
+        return price;
+    }
+
+    public long getTotal()
+    {
+        return total;
+    }
+
+    public void setTotal(long total)
+    {
+        this.total = total;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *
+ * Copyright 2008-2012 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.search.IndexEntry;
+import org.springframework.data.search.IndexEntryMapper;
+import org.springframework.data.search.PrimitiveBean;
+
+/**
+ * Compares the cost of mapping a page of 1,000 index entries with each
+ * {@link AccessorStrategy} against a hand-written {@link IndexEntryMapper}.
+ * Not run as part of the test suite; launch the <code>main</code> method
+ * directly.
+ *
+ * @author Manish Baxi
+ */
+public final class IndexedFieldAccessorBenchmark
+{
+    private static final int ITERATIONS = 5;
+    private static final int PAGE_SIZE  = 1000;
+    private static final int PAGES      = 2000;
+
+    /**
+     * Prevent instantiation.
+     */
+    private IndexedFieldAccessorBenchmark()
+    {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Ignored.
+     */
+    public static void main(final String[] args)
+    {
+        final List<IndexEntry> page = new ArrayList<IndexEntry>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; ++i)
+        {
+            final IndexEntry entry = new SimpleIndexEntry();
+            entry.put("available", Boolean.TRUE);
+            entry.put("count", Long.valueOf(i));
+            entry.put("id", String.valueOf(i));
+            entry.put("price", Double.valueOf(i / 10d));
+            entry.put("total", Long.valueOf(i * 1000L));
+
+            page.add(entry);
+        }
+
+        final IndexEntryMapper<PrimitiveBean> handWritten = new IndexEntryMapper<PrimitiveBean>()
+        {
+            @Override
+            public PrimitiveBean map(final IndexEntry entry)
+            {
+                return new PrimitiveBean((String) entry.get("id"), ((Number) entry.get("count")).intValue(), ((Number) entry.get("total")).longValue(),
+                        ((Number) entry.get("price")).doubleValue(), (Boolean) entry.get("available"));
+            }
+        };
+
+        long sink = 0;
+        for (int i = 0; i < ITERATIONS; ++i)
+        {
+            final StringBuilder results = new StringBuilder("Iteration ").append(i + 1).append(':');
+            for (AccessorStrategy strategy : AccessorStrategy.values())
+            {
+                final IndexEntryMapper<PrimitiveBean> mapper = new IndexedFieldIndexEntryMapper<PrimitiveBean>(PrimitiveBean.class, strategy);
+
+                final long start = System.nanoTime();
+                sink += map(page, mapper);
+                results.append(String.format(" %s %.1f us/page,", strategy, (System.nanoTime() - start) / 1000d / PAGES));
+            }
+
+            final long start = System.nanoTime();
+            sink += map(page, handWritten);
+            results.append(String.format(" hand-written %.1f us/page", (System.nanoTime() - start) / 1000d / PAGES));
+
+            System.out.println(results);
+        }
+
+        System.out.println(sink);
+    }
+
+    /**
+     * Maps the page repeatedly.
+     */
+    private static long map(final List<IndexEntry> page, final IndexEntryMapper<PrimitiveBean> mapper)
+    {
+        long sink = 0;
+        for (int i = 0; i < PAGES; ++i)
+        {
+            for (IndexEntry entry : page)
+            {
+                sink += mapper.map(entry).getCount();
+            }
+        }
+
+        return sink;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *
+ * Copyright 2008-2012 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.search.DummyBean;
+import org.springframework.data.search.annotation.Indexed;
+import org.springframework.util.StringUtils;
+
+/**
+ * Compares the per-bean cost of extracting indexed field values by scanning
+ * the fields of a class on every call against reading them through
+ * {@link MappingMetadata}. Not run as part of the test suite; launch the
+ * <code>main</code> method directly.
+ *
+ * @author Manish Baxi
+ */
+public final class MappingMetadataBenchmark
+{
+    private static final int BEANS      = 1000000;
+    private static final int ITERATIONS = 5;
+
+    /**
+     * Prevent instantiation.
+     */
+    private MappingMetadataBenchmark()
+    {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Ignored.
+     */
+    public static void main(final String[] args) throws Exception
+    {
+        final DummyBean bean = new DummyBean("1234", new Date(), "dummy name");
+
+        long sink = 0;
+        for (int i = 0; i < ITERATIONS; ++i)
+        {
+            long start = System.nanoTime();
+            for (int j = 0; j < BEANS; ++j)
+            {
+                sink += scan(bean).size();
+            }
+            final long scanned = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int j = 0; j < BEANS; ++j)
+            {
+                sink += cached(bean).size();
+            }
+            final long cached = System.nanoTime() - start;
+
+            System.out.println(String.format("Iteration %d: field scan %.1f ns/bean, mapping metadata %.1f ns/bean", i + 1, (double) scanned / BEANS, (double) cached
+                    / BEANS));
+        }
+
+        System.out.println(sink);
+    }
+
+    /**
+     * Extracts indexed field values through {@link MappingMetadata}.
+     */
+    private static Map<String, Object> cached(final Object bean)
+    {
+        final Map<String, Object> results = new HashMap<String, Object>();
+        final MappingMetadata metadata = MappingMetadata.forClass(bean.getClass());
+        final IndexedFieldAccessor accessor = metadata.getAccessor(AccessorStrategy.REFLECTION);
+        for (int i = 0; i < metadata.getFieldCount(); ++i)
+        {
+            results.put(metadata.getFieldName(i), accessor.getValue(bean, i));
+        }
+
+        return results;
+    }
+
+    /**
+     * Extracts indexed field values by scanning the fields of the bean class.
+     */
+    private static Map<String, Object> scan(final Object bean) throws IllegalAccessException
+    {
+        final Map<String, Object> results = new HashMap<String, Object>();
+        for (Field field : bean.getClass().getDeclaredFields())
+        {
+            field.setAccessible(true);
+            final Indexed annotation = field.getAnnotation(Indexed.class);
+            if (annotation != null)
+            {
+                String fieldName = annotation.fieldName();
+                if (!StringUtils.hasText(fieldName))
+                {
+                    fieldName = field.getName();
+                }
+                results.put(fieldName, field.get(bean));
+            }
+        }
+
+        return results;
+    }
+}
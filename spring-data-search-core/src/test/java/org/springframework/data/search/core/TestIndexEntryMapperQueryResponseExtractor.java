@@ -0,0 +1,130 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.search.IndexEntry;
+import org.springframework.data.search.IndexEntryMapper;
+
+/**
+ * Unit tests for {@link IndexEntryMapperQueryResponseExtractor}.
+ *
+ * @author Manish Baxi
+ */
+public class TestIndexEntryMapperQueryResponseExtractor
+{
+    private CountingMapper        mapper;
+    private AbstractQueryResponse response;
+
+    /**
+     * Creates a query response with a few entries.
+     */
+    @Before
+    public void setUp()
+    {
+        final List<IndexEntry> entries = new ArrayList<IndexEntry>();
+        for (int i = 0; i < 5; ++i)
+        {
+            final IndexEntry entry = new SimpleIndexEntry();
+            entry.put("id", String.valueOf(i));
+
+            entries.add(entry);
+        }
+
+        this.mapper = new CountingMapper();
+        this.response = new AbstractQueryResponse()
+        {
+            @Override
+            public Object getNativeResponse()
+            {
+                return null;
+            }
+        };
+        this.response.setMatchingEntries(entries);
+    }
+
+    /**
+     * Tests that all entries are converted up front by default.
+     */
+    @Test
+    public void testEagerExtraction()
+    {
+        final Collection<String> results = new IndexEntryMapperQueryResponseExtractor<String>(this.mapper).extractData(this.response);
+
+        assertEquals(5, results.size());
+        assertEquals(5, this.mapper.count);
+    }
+
+    /**
+     * Tests that entries are converted only when accessed, and only once.
+     */
+    @Test
+    public void testLazyExtraction()
+    {
+        final Collection<String> results = new IndexEntryMapperQueryResponseExtractor<String>(this.mapper, true).extractData(this.response);
+
+        assertEquals(5, results.size());
+        assertEquals(0, this.mapper.count);
+
+        final Iterator<String> iterator = results.iterator();
+        assertEquals("0", iterator.next());
+        assertEquals("1", iterator.next());
+        assertEquals(2, this.mapper.count);
+
+        final List<String> list = (List<String>) results;
+        assertSame(list.get(1), list.get(1));
+        assertEquals("4", list.get(4));
+        assertEquals(3, this.mapper.count);
+    }
+
+    /**
+     * Tests that lazily extracted results cannot be modified.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testLazyExtractionUnmodifiable()
+    {
+        new IndexEntryMapperQueryResponseExtractor<String>(this.mapper, true).extractData(this.response).add("5");
+    }
+
+    /**
+     * Converts entries into their identifiers, counting conversions.
+     */
+    private static final class CountingMapper implements IndexEntryMapper<String>
+    {
+        private int count;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String map(final IndexEntry entry)
+        {
+            ++this.count;
+
+            return new String((String) entry.get("id"));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ *
+ * Copyright 2008-2012 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+import org.springframework.data.search.DummyBean;
+import org.springframework.data.search.Indexable;
+import org.springframework.data.search.PrimitiveBean;
+import org.springframework.data.search.annotation.Indexed;
+
+/**
+ * Unit tests for the {@link IndexedFieldAccessor} implementations.
+ *
+ * @author Manish Baxi
+ */
+public class TestIndexedFieldAccessor
+{
+    /**
+     * Tests that the generated accessor is used when possible.
+     */
+    @Test
+    public void testGeneratedAccessor()
+    {
+        final IndexedFieldAccessor accessor = MappingMetadata.forClass(DummyBean.class).getAccessor(AccessorStrategy.GENERATED);
+
+        assertFalse(accessor instanceof MethodHandleIndexedFieldAccessor);
+        assertTrue(accessor.getClass().getName().startsWith(DummyBean.class.getName()));
+    }
+
+    /**
+     * Tests that primitive fields are read and written by all strategies.
+     */
+    @Test
+    public void testPrimitiveValues()
+    {
+        for (AccessorStrategy strategy : AccessorStrategy.values())
+        {
+            final IndexedFieldAccessor accessor = MappingMetadata.forClass(PrimitiveBean.class).getAccessor(strategy);
+            final PrimitiveBean bean = new PrimitiveBean();
+
+            accessor.setValue(bean, indexOf(PrimitiveBean.class, "available"), Boolean.TRUE);
+            accessor.setValue(bean, indexOf(PrimitiveBean.class, "count"), Long.valueOf(12));
+            accessor.setValue(bean, indexOf(PrimitiveBean.class, "id"), "1234");
+            accessor.setValue(bean, indexOf(PrimitiveBean.class, "price"), Float.valueOf(2.5f));
+            accessor.setValue(bean, indexOf(PrimitiveBean.class, "total"), Integer.valueOf(34));
+
+            assertEquals(strategy.name(), Boolean.TRUE, accessor.getValue(bean, indexOf(PrimitiveBean.class, "available")));
+            assertEquals(strategy.name(), Integer.valueOf(12), accessor.getValue(bean, indexOf(PrimitiveBean.class, "count")));
+            assertEquals(strategy.name(), "1234", accessor.getValue(bean, indexOf(PrimitiveBean.class, "id")));
+            assertEquals(strategy.name(), Double.valueOf(2.5), accessor.getValue(bean, indexOf(PrimitiveBean.class, "price")));
+            assertEquals(strategy.name(), Long.valueOf(34), accessor.getValue(bean, indexOf(PrimitiveBean.class, "total")));
+
+            accessor.setValue(bean, indexOf(PrimitiveBean.class, "count"), null);
+            assertEquals(strategy.name(), 12, bean.getCount());
+        }
+    }
+
+    /**
+     * Tests that values which cannot be assigned are rejected by all
+     * strategies.
+     */
+    @Test
+    public void testInvalidValues()
+    {
+        for (AccessorStrategy strategy : AccessorStrategy.values())
+        {
+            final IndexedFieldAccessor accessor = MappingMetadata.forClass(DummyBean.class).getAccessor(strategy);
+            try
+            {
+                accessor.setValue(new DummyBean(), indexOf(DummyBean.class, "last_modified"), "today");
+
+                throw new AssertionError(strategy.name());
+            }
+            catch (IllegalArgumentException e)
+            {
+            }
+        }
+    }
+
+    /**
+     * Tests that reference fields are read and written by all strategies.
+     */
+    @Test
+    public void testReferenceValues()
+    {
+        final Date today = new Date();
+
+        for (AccessorStrategy strategy : AccessorStrategy.values())
+        {
+            final IndexedFieldAccessor accessor = MappingMetadata.forClass(DummyBean.class).getAccessor(strategy);
+            final DummyBean bean = new DummyBean();
+
+            accessor.setValue(bean, indexOf(DummyBean.class, "id"), "1234");
+            accessor.setValue(bean, indexOf(DummyBean.class, "last_modified"), today);
+            accessor.setValue(bean, indexOf(DummyBean.class, "name"), "dummy name");
+
+            assertEquals(strategy.name(), new DummyBean("1234", today, "dummy name"), bean);
+            assertEquals(strategy.name(), "1234", accessor.getValue(bean, indexOf(DummyBean.class, "id")));
+            assertEquals(strategy.name(), today, accessor.getValue(bean, indexOf(DummyBean.class, "last_modified")));
+            assertEquals(strategy.name(), "dummy name", accessor.getValue(bean, indexOf(DummyBean.class, "name")));
+        }
+    }
+
+    /**
+     * Tests that no strategy reads or writes fields through their getters and
+     * setters.
+     */
+    @Test
+    public void testBypassAccessors()
+    {
+        for (AccessorStrategy strategy : AccessorStrategy.values())
+        {
+            final IndexedFieldAccessor accessor = MappingMetadata.forClass(AccessorBean.class).getAccessor(strategy);
+            final AccessorBean bean = new AccessorBean();
+
+            accessor.setValue(bean, indexOf(AccessorBean.class, "id"), "1234");
+            accessor.setValue(bean, indexOf(AccessorBean.class, "name"), "dummy name");
+
+            assertEquals(strategy.name(), "1234", accessor.getValue(bean, indexOf(AccessorBean.class, "id")));
+            assertEquals(strategy.name(), "dummy name", accessor.getValue(bean, indexOf(AccessorBean.class, "name")));
+        }
+    }
+
+    /**
+     * Gets the position of an indexed field by its search index field name, as
+     * the order of the fields of a class is not specified.
+     */
+    private static int indexOf(final Class<?> type, final String fieldName)
+    {
+        final MappingMetadata metadata = MappingMetadata.forClass(type);
+        for (int i = 0; i < metadata.getFieldCount(); ++i)
+        {
+            if (metadata.getFieldName(i).equals(fieldName))
+            {
+                return i;
+            }
+        }
+
+        throw new AssertionError("No indexed field " + fieldName + " in " + type);
+    }
+
+    /**
+     * A bean whose getters and setters must not be called.
+     */
+    public static class AccessorBean implements Indexable
+    {
+        @Indexed
+        public String  id;
+
+        @Indexed
+        private String name;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getId()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public void setId(String id)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public String getName()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public void setName(String name)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.data.search.IndexEntryMappingException;
+import org.springframework.data.search.PrimitiveBean;
+
+/**
+ * Unit tests for {@link IndexedFieldConverter}.
+ *
+ * @author Manish Baxi
+ */
+public class TestIndexedFieldConverter
+{
+    /**
+     * Tests that values of the field type are returned as is.
+     */
+    @Test
+    public void testCompatibleValue()
+    {
+        final String value = "value";
+
+        assertSame(value, new IndexedFieldConverter(String.class).convert(value));
+        assertNull(new IndexedFieldConverter(int.class).convert(null));
+    }
+
+    /**
+     * Tests that values are converted through a constructor of the field type.
+     */
+    @Test
+    public void testConstructorConversion()
+    {
+        assertEquals(new Date(1000L), new IndexedFieldConverter(Date.class).convert(Long.valueOf(1000L)));
+    }
+
+    /**
+     * Tests that numbers are converted into the field type.
+     */
+    @Test
+    public void testNumericConversion()
+    {
+        final IndexedFieldConverter converter = new IndexedFieldConverter(Integer.class);
+
+        assertEquals(Integer.valueOf(42), converter.convert(Long.valueOf(42L)));
+        assertEquals(Integer.valueOf(43), converter.convert(Long.valueOf(43L)));
+        assertEquals(Integer.valueOf(44), converter.convert("44"));
+        assertEquals(Double.valueOf(1.5d), new IndexedFieldConverter(Double.class).convert(Float.valueOf(1.5f)));
+    }
+
+    /**
+     * Tests that numbers for fields of primitive numeric types are returned as
+     * is, for the accessor to narrow or widen them without boxing.
+     */
+    @Test
+    public void testPrimitiveNumericConversion()
+    {
+        final Long value = Long.valueOf(42L);
+        final Float other = Float.valueOf(1.5f);
+
+        assertSame(value, new IndexedFieldConverter(int.class).convert(value));
+        assertSame(value, new IndexedFieldConverter(short.class).convert(value));
+        assertSame(other, new IndexedFieldConverter(double.class).convert(other));
+        assertEquals(Integer.valueOf(44), new IndexedFieldConverter(int.class).convert("44"));
+    }
+
+    /**
+     * Tests that numbers that do not fit into the field type are rejected.
+     */
+    @Test(expected = IndexEntryMappingException.class)
+    public void testNumericOverflow()
+    {
+        new IndexedFieldConverter(int.class).convert(Long.valueOf(Long.MAX_VALUE));
+    }
+
+    /**
+     * Tests that numbers that do not fit into the wrapper field type are
+     * rejected.
+     */
+    @Test(expected = IndexEntryMappingException.class)
+    public void testWrapperNumericOverflow()
+    {
+        new IndexedFieldConverter(Integer.class).convert(Long.valueOf(Long.MAX_VALUE));
+    }
+
+    /**
+     * Tests that values are converted into strings for string fields.
+     */
+    @Test
+    public void testStringConversion()
+    {
+        assertEquals("42", new IndexedFieldConverter(String.class).convert(Long.valueOf(42L)));
+        assertEquals(Boolean.TRUE, new IndexedFieldConverter(boolean.class).convert("true"));
+    }
+
+    /**
+     * Tests that collections and arrays are not converted into strings.
+     */
+    @Test
+    public void testMultiValuedStringConversion()
+    {
+        final IndexedFieldConverter converter = new IndexedFieldConverter(String.class);
+        for (Object value : new Object[] { Arrays.asList("a", "b"), new String[] { "a", "b" }, new byte[] { 1, 2 } })
+        {
+            try
+            {
+                converter.convert(value);
+            }
+            catch (IndexEntryMappingException e)
+            {
+                continue;
+            }
+
+            throw new AssertionError("Expected an IndexEntryMappingException for " + value);
+        }
+    }
+
+    /**
+     * Tests that values which cannot be converted are rejected every time they
+     * are seen.
+     */
+    @Test
+    public void testUnsupportedConversion()
+    {
+        final IndexedFieldConverter converter = new IndexedFieldConverter(List.class);
+        for (int i = 0; i < 2; ++i)
+        {
+            try
+            {
+                converter.convert(new PrimitiveBean());
+            }
+            catch (IndexEntryMappingException e)
+            {
+                continue;
+            }
+
+            throw new AssertionError("Expected an IndexEntryMappingException");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *
+ * Copyright 2008-2012 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.data.search.AnythingToBeIndexedBean;
+import org.springframework.data.search.DummyBean;
+
+/**
+ * Unit tests for {@link MappingMetadata}.
+ *
+ * @author Manish Baxi
+ */
+public class TestMappingMetadata
+{
+    /**
+     * Tests that indexed fields are resolved along with their search index
+     * field names.
+     */
+    @Test
+    public void testIndexedFields()
+    {
+        final MappingMetadata metadata = MappingMetadata.forClass(DummyBean.class);
+        final Map<String, Field> fields = new HashMap<String, Field>();
+        for (int i = 0; i < metadata.getFieldCount(); ++i)
+        {
+            fields.put(metadata.getFieldName(i), metadata.getField(i));
+        }
+
+        assertEquals(3, metadata.getFieldCount());
+        assertEquals(new HashSet<String>(Arrays.asList("id", "last_modified", "name")), new HashSet<String>(Arrays.asList(metadata.getFieldNames())));
+        assertEquals("id", fields.get("id").getName());
+        assertEquals("modified", fields.get("last_modified").getName());
+        assertEquals("name", fields.get("name").getName());
+    }
+
+    /**
+     * Tests that classes without indexed fields are recognized.
+     */
+    @Test
+    public void testNoIndexedFields()
+    {
+        assertFalse(MappingMetadata.forClass(AnythingToBeIndexedBean.class).hasIndexedFields());
+    }
+
+    /**
+     * Tests that indexed fields can be read and written through the accessor
+     * of every strategy, by their search index field names.
+     */
+    @Test
+    public void testValues()
+    {
+        final MappingMetadata metadata = MappingMetadata.forClass(DummyBean.class);
+        final Map<String, Integer> positions = new HashMap<String, Integer>();
+        for (int i = 0; i < metadata.getFieldCount(); ++i)
+        {
+            positions.put(metadata.getFieldName(i), i);
+        }
+
+        final Date today = new Date();
+        for (AccessorStrategy strategy : AccessorStrategy.values())
+        {
+            final IndexedFieldAccessor accessor = metadata.getAccessor(strategy);
+            final DummyBean bean = new DummyBean();
+
+            accessor.setValue(bean, positions.get("id"), "1234");
+            accessor.setValue(bean, positions.get("last_modified"), today);
+            accessor.setValue(bean, positions.get("name"), "dummy name");
+
+            assertEquals(new DummyBean("1234", today, "dummy name"), bean);
+            assertEquals("1234", accessor.getValue(bean, positions.get("id")));
+            assertEquals(today, accessor.getValue(bean, positions.get("last_modified")));
+            assertEquals("dummy name", accessor.getValue(bean, positions.get("name")));
+        }
+    }
+
+    /**
+     * Tests that metadata is resolved only once per class.
+     */
+    @Test
+    public void testResolvedOnce()
+    {
+        assertSame(MappingMetadata.forClass(DummyBean.class), MappingMetadata.forClass(DummyBean.class));
+    }
+}
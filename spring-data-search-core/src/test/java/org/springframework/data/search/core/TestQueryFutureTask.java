@@ -0,0 +1,136 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+
+import org.junit.Test;
+import org.springframework.data.search.QueryCallback;
+
+/**
+ * Unit tests for {@link QueryFutureTask}.
+ *
+ * @author Manish Baxi
+ */
+public class TestQueryFutureTask
+{
+    /**
+     * Tests that callbacks added before and after completion are told the
+     * result.
+     */
+    @Test
+    public void testSuccess()
+    {
+        final QueryFutureTask<String> future = new QueryFutureTask<String>(new Callable<String>()
+        {
+            @Override
+            public String call()
+            {
+                return "result";
+            }
+        });
+        final RecordingCallback before = new RecordingCallback();
+        future.addCallback(before);
+
+        future.run();
+
+        final RecordingCallback after = new RecordingCallback();
+        future.addCallback(after);
+        assertEquals("[result]", before.outcomes.toString());
+        assertEquals("[result]", after.outcomes.toString());
+    }
+
+    /**
+     * Tests that callbacks are told the cause of a failure.
+     */
+    @Test
+    public void testFailure()
+    {
+        final IllegalStateException failure = new IllegalStateException();
+        final QueryFutureTask<String> future = new QueryFutureTask<String>(new Callable<String>()
+        {
+            @Override
+            public String call()
+            {
+                throw failure;
+            }
+        });
+        final RecordingCallback callback = new RecordingCallback();
+        future.addCallback(callback);
+
+        future.run();
+
+        assertEquals(1, callback.outcomes.size());
+        assertSame(failure, callback.outcomes.get(0));
+    }
+
+    /**
+     * Tests that callbacks are told of cancellation.
+     */
+    @Test
+    public void testCancel()
+    {
+        final QueryFutureTask<String> future = new QueryFutureTask<String>(new Callable<String>()
+        {
+            @Override
+            public String call()
+            {
+                return "result";
+            }
+        });
+        final RecordingCallback callback = new RecordingCallback();
+        future.addCallback(callback);
+
+        future.cancel(false);
+
+        assertEquals(1, callback.outcomes.size());
+        assertTrue(callback.outcomes.get(0) instanceof CancellationException);
+    }
+
+    /**
+     * Records the outcomes it is told about.
+     */
+    private static final class RecordingCallback implements QueryCallback<String>
+    {
+        private final List<Object> outcomes = new ArrayList<Object>();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onFailure(final Throwable cause)
+        {
+            this.outcomes.add(cause);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onSuccess(final String result)
+        {
+            this.outcomes.add(result);
+        }
+    }
+}
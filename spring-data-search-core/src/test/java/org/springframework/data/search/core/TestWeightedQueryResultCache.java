@@ -0,0 +1,120 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.data.search.IndexEntry;
+import org.springframework.data.search.QueryResponse;
+
+/**
+ * Unit tests for {@link WeightedQueryResultCache}.
+ *
+ * @author Manish Baxi
+ */
+public class TestWeightedQueryResultCache
+{
+    /**
+     * Tests that the least recently used responses are evicted once the
+     * estimated size of all responses exceeds the maximum.
+     */
+    @Test
+    public void testEvictByWeight()
+    {
+        final QueryResponse small = response(1, 10);
+        final WeightedQueryResultCache cache = new WeightedQueryResultCache(3 * new WeightedQueryResultCache(1).weigh(small) + 500);
+
+        cache.put("a", small);
+        cache.put("b", small);
+        cache.put("c", small);
+        assertSame(small, cache.get("a"));
+        assertEquals(3, cache.getSize());
+
+        cache.put("d", small);
+
+        assertSame(small, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(cache.getWeight() <= 3 * cache.weigh(small) + 500);
+
+        cache.put("e", response(4, 10));
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("c"));
+        assertEquals(1, cache.getSize());
+    }
+
+    /**
+     * Tests that larger entries weigh more, and that responses larger than the
+     * whole cache are not cached.
+     */
+    @Test
+    public void testWeighEntries()
+    {
+        final WeightedQueryResultCache cache = new WeightedQueryResultCache(1000);
+
+        assertTrue(cache.weigh(response(1, 100)) > cache.weigh(response(1, 10)));
+        assertTrue(cache.weigh(response(2, 10)) > cache.weigh(response(1, 10)));
+
+        cache.put("a", response(100, 100));
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.getWeight());
+    }
+
+    /**
+     * Creates a response with a number of entries, each with a name of a given
+     * length.
+     */
+    private static QueryResponse response(final int entryCount, final int nameLength)
+    {
+        final StringBuilder name = new StringBuilder();
+        for (int i = 0; i < nameLength; ++i)
+        {
+            name.append('x');
+        }
+
+        final List<IndexEntry> entries = new ArrayList<IndexEntry>();
+        for (int i = 0; i < entryCount; ++i)
+        {
+            final IndexEntry entry = new SimpleIndexEntry();
+            entry.put("id", String.valueOf(i));
+            entry.put("name", name.toString());
+
+            entries.add(entry);
+        }
+
+        final AbstractQueryResponse response = new AbstractQueryResponse()
+        {
+            @Override
+            public Object getNativeResponse()
+            {
+                return null;
+            }
+        };
+        response.setMatchingEntries(entries);
+
+        return response;
+    }
+}
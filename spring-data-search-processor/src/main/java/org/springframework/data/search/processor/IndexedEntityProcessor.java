@@ -0,0 +1,382 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+import org.springframework.data.search.IndexEntryMapper;
+import org.springframework.data.search.IndexEntryWriter;
+import org.springframework.data.search.annotation.Indexed;
+import org.springframework.data.search.core.GeneratedMappings;
+import org.springframework.data.search.core.IndexedFieldConverter;
+
+/**
+ * Generates an {@link IndexEntryMapper} and an {@link IndexEntryWriter} for
+ * every class that declares {@link Indexed} fields. The generated classes read
+ * and write the fields directly, or through their getters and setters if the
+ * fields are private, convert values through {@link IndexedFieldConverter}s
+ * and are picked up at runtime through {@link GeneratedMappings}. Classes
+ * that cannot be handled without reflection are skipped with a note and
+ * continue to be mapped reflectively.
+ *
+ * @author Manish Baxi
+ */
+@SupportedAnnotationTypes("org.springframework.data.search.annotation.Indexed")
+public class IndexedEntityProcessor extends AbstractProcessor
+{
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv)
+    {
+        final Map<TypeElement, List<VariableElement>> types = new LinkedHashMap<TypeElement, List<VariableElement>>();
+        for (VariableElement field : ElementFilter.fieldsIn(roundEnv.getElementsAnnotatedWith(Indexed.class)))
+        {
+            final TypeElement type = (TypeElement) field.getEnclosingElement();
+
+            List<VariableElement> fields = types.get(type);
+            if (fields == null)
+            {
+                fields = new ArrayList<VariableElement>();
+                types.put(type, fields);
+            }
+
+            fields.add(field);
+        }
+
+        for (Map.Entry<TypeElement, List<VariableElement>> entry : types.entrySet())
+        {
+            final TypeElement type = entry.getKey();
+
+            final List<Property> properties = this.resolveProperties(type, entry.getValue());
+            if (properties != null)
+            {
+                final String className = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+
+                final String mapperName = GeneratedMappings.getGeneratedClassName(className, GeneratedMappings.MAPPER_SUFFIX);
+                final String writerName = GeneratedMappings.getGeneratedClassName(className, GeneratedMappings.WRITER_SUFFIX);
+
+                this.write(type, mapperName, this.generateMapper(type, this.getSimpleName(mapperName), properties));
+                this.write(type, writerName, this.generateWriter(type, this.getSimpleName(writerName), properties));
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Generates the body of a mapper class.
+     */
+    private String generateMapper(final TypeElement type, final String simpleName, final List<Property> properties)
+    {
+        final String typeName = type.getQualifiedName().toString();
+
+        final StringBuilder body = new StringBuilder();
+        body.append("public final class ").append(simpleName).append(" implements org.springframework.data.search.IndexEntryMapper<").append(typeName).append(">\n");
+        body.append("{\n");
+        for (int i = 0; i < properties.size(); ++i)
+        {
+            body.append("    private static final org.springframework.data.search.core.IndexedFieldConverter CONVERTER_").append(i)
+                    .append(" = new org.springframework.data.search.core.IndexedFieldConverter(")
+                    .append(this.processingEnv.getTypeUtils().erasure(properties.get(i).type)).append(".class);\n");
+        }
+        body.append("\n");
+        body.append("    @Override\n");
+        body.append("    @SuppressWarnings({ \"rawtypes\", \"unchecked\" })\n");
+        body.append("    public ").append(typeName).append(" map(final org.springframework.data.search.IndexEntry entry)\n");
+        body.append("    {\n");
+        body.append("        final ").append(typeName).append(" bean = new ").append(typeName).append("();\n");
+        body.append("        Object value;\n");
+
+        for (int i = 0; i < properties.size(); ++i)
+        {
+            final Property property = properties.get(i);
+            final String converted = "CONVERTER_" + i + ".convert(value)";
+
+            body.append("\n");
+            body.append("        value = entry.get(").append(this.literal(property.indexName)).append(");\n");
+            if (property.type.getKind().isPrimitive())
+            {
+                final TypeKind kind = property.type.getKind();
+                final String wrapper = kind == TypeKind.BOOLEAN || kind == TypeKind.CHAR ? this.processingEnv.getTypeUtils()
+                        .boxedClass((PrimitiveType) property.type).getQualifiedName().toString() : "java.lang.Number";
+
+                body.append("        if (value != null)\n");
+                body.append("        {\n");
+                body.append("            ").append(String.format(property.write, "((" + wrapper + ") " + converted + ")." + property.type + "Value()")).append("\n");
+                body.append("        }\n");
+            }
+            else
+            {
+                body.append("        ").append(String.format(property.write, "(" + this.processingEnv.getTypeUtils().erasure(property.type) + ") " + converted)).append("\n");
+            }
+        }
+
+        body.append("\n");
+        body.append("        return bean;\n");
+        body.append("    }\n");
+        body.append("}\n");
+
+        return body.toString();
+    }
+
+    /**
+     * Generates the body of a writer class.
+     */
+    private String generateWriter(final TypeElement type, final String simpleName, final List<Property> properties)
+    {
+        final String typeName = type.getQualifiedName().toString();
+
+        final StringBuilder body = new StringBuilder();
+        body.append("public final class ").append(simpleName).append(" implements org.springframework.data.search.IndexEntryWriter<").append(typeName).append(">\n");
+        body.append("{\n");
+        body.append("    @Override\n");
+        body.append("    public void write(final ").append(typeName).append(" bean, final org.springframework.data.search.IndexEntry entry)\n");
+        body.append("    {\n");
+
+        for (Property property : properties)
+        {
+            body.append("        entry.put(").append(this.literal(property.indexName)).append(", ").append(property.read).append(");\n");
+        }
+
+        body.append("    }\n");
+        body.append("}\n");
+
+        return body.toString();
+    }
+
+    /**
+     * Finds a non-private, non-static method on a type.
+     */
+    private ExecutableElement findMethod(final TypeElement type, final String name, final TypeMirror returnType, final TypeMirror... parameterTypes)
+    {
+        for (ExecutableElement method : ElementFilter.methodsIn(this.processingEnv.getElementUtils().getAllMembers(type)))
+        {
+            if (method.getSimpleName().contentEquals(name) && !method.getModifiers().contains(Modifier.PRIVATE) && !method.getModifiers().contains(Modifier.STATIC)
+                    && this.processingEnv.getTypeUtils().isSameType(method.getReturnType(), returnType) && method.getParameters().size() == parameterTypes.length)
+            {
+                boolean matches = true;
+                for (int i = 0; i < parameterTypes.length; ++i)
+                {
+                    matches &= this.processingEnv.getTypeUtils().isSameType(method.getParameters().get(i).asType(), parameterTypes[i]);
+                }
+
+                if (matches)
+                {
+                    return method;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the simple name of a generated class.
+     */
+    private String getSimpleName(final String className)
+    {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Checks whether a type can be instantiated from a generated class in the
+     * same package.
+     */
+    private boolean isInstantiable(final TypeElement type)
+    {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT) || !type.getTypeParameters().isEmpty())
+        {
+            return false;
+        }
+
+        for (Element element = type; element.getKind().isClass(); element = element.getEnclosingElement())
+        {
+            final TypeElement enclosing = (TypeElement) element;
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)
+                    || (enclosing.getNestingKind() == NestingKind.MEMBER && !enclosing.getModifiers().contains(Modifier.STATIC))
+                    || (enclosing.getNestingKind() != NestingKind.TOP_LEVEL && enclosing.getNestingKind() != NestingKind.MEMBER))
+            {
+                return false;
+            }
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements()))
+        {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Escapes a value as a Java string literal.
+     */
+    private String literal(final String value)
+    {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Resolves how each indexed field of a type can be read and written.
+     *
+     * @return The properties for the indexed fields, or <code>null</code> if
+     *         the type cannot be handled by generated code.
+     */
+    private List<Property> resolveProperties(final TypeElement type, final List<VariableElement> fields)
+    {
+        if (!this.isInstantiable(type))
+        {
+            this.processingEnv.getMessager().printMessage(Kind.NOTE, "Not generating index entry mappings for " + type
+                    + " as it cannot be instantiated through a non-private no-argument constructor.", type);
+
+            return null;
+        }
+
+        final List<Property> properties = new ArrayList<Property>(fields.size());
+        for (VariableElement field : fields)
+        {
+            final Indexed annotation = field.getAnnotation(Indexed.class);
+            final String fieldName = field.getSimpleName().toString();
+            final String indexName = annotation.fieldName().length() == 0 ? fieldName : annotation.fieldName();
+            final TypeMirror fieldType = field.asType();
+
+            if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.FINAL))
+            {
+                this.processingEnv.getMessager().printMessage(Kind.NOTE, "Not generating index entry mappings for " + type + " as the indexed field " + fieldName
+                        + " is static or final.", field);
+
+                return null;
+            }
+
+            if (!field.getModifiers().contains(Modifier.PRIVATE))
+            {
+                properties.add(new Property(indexName, fieldType, "bean." + fieldName, "bean." + fieldName + " = %s;"));
+                continue;
+            }
+
+            final String capitalized = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+
+            ExecutableElement getter = this.findMethod(type, "get" + capitalized, fieldType);
+            if (getter == null && fieldType.getKind() == TypeKind.BOOLEAN)
+            {
+                getter = this.findMethod(type, "is" + capitalized, fieldType);
+            }
+
+            final ExecutableElement setter = this.findMethod(type, "set" + capitalized, this.processingEnv.getTypeUtils().getNoType(TypeKind.VOID), fieldType);
+
+            if (getter == null || setter == null)
+            {
+                this.processingEnv.getMessager().printMessage(Kind.NOTE, "Not generating index entry mappings for " + type + " as the private indexed field "
+                        + fieldName + " does not have a non-private getter and setter.", field);
+
+                return null;
+            }
+
+            properties.add(new Property(indexName, fieldType, "bean." + getter.getSimpleName() + "()", "bean." + setter.getSimpleName() + "(%s);"));
+        }
+
+        return properties;
+    }
+
+    /**
+     * Writes a generated class.
+     */
+    private void write(final TypeElement type, final String className, final String body)
+    {
+        final int index = className.lastIndexOf('.');
+
+        final StringBuilder source = new StringBuilder();
+        if (index != -1)
+        {
+            source.append("package ").append(className.substring(0, index)).append(";\n\n");
+        }
+        source.append(body);
+
+        try
+        {
+            final Writer writer = this.processingEnv.getFiler().createSourceFile(className, type).openWriter();
+            try
+            {
+                writer.write(source.toString());
+            }
+            finally
+            {
+                writer.close();
+            }
+        }
+        catch (IOException e)
+        {
+            this.processingEnv.getMessager().printMessage(Kind.ERROR, "Unable to write " + className + ": " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Describes how an indexed field is read and written by generated code.
+     */
+    private static final class Property
+    {
+        private final String     indexName;
+        private final String     read;
+        private final TypeMirror type;
+        private final String     write;
+
+        private Property(final String indexName, final TypeMirror type, final String read, final String write)
+        {
+            this.indexName = indexName;
+            this.read = read;
+            this.type = type;
+            this.write = write;
+        }
+    }
+}
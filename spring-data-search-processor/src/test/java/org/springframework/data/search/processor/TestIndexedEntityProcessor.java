@@ -0,0 +1,251 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.search.IndexEntry;
+import org.springframework.data.search.IndexEntryMapper;
+import org.springframework.data.search.IndexEntryMappingException;
+import org.springframework.data.search.IndexEntryWriter;
+import org.springframework.data.search.annotation.Indexed;
+import org.springframework.data.search.core.GeneratedMappings;
+import org.springframework.data.search.core.SimpleIndexEntry;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Unit tests for {@link IndexedEntityProcessor}.
+ *
+ * @author Manish Baxi
+ */
+public class TestIndexedEntityProcessor
+{
+    private static final String CATALOG = "package sample;\n" //
+                                                + "import org.springframework.data.search.annotation.Indexed;\n" //
+                                                + "public class Catalog {\n" //
+                                                + "    @Indexed public String id;\n" //
+                                                + "    @Indexed(fieldName = \"item_count\") private int count;\n" //
+                                                + "    @Indexed boolean available;\n" //
+                                                + "    @Indexed public Integer rank;\n" //
+                                                + "    @Indexed private java.util.List<String> tags;\n" //
+                                                + "    public int getCount() { return count; }\n" //
+                                                + "    public void setCount(int count) { this.count = count; }\n" //
+                                                + "    public java.util.List<String> getTags() { return tags; }\n" //
+                                                + "    public void setTags(java.util.List<String> tags) { this.tags = tags; }\n" //
+                                                + "    public static class Entry { @Indexed public long total; }\n" //
+                                                + "}\n";
+    private static final String ENTRY   = "package sample;\n" //
+                                                + "import org.springframework.data.search.annotation.Indexed;\n" //
+                                                + "public class Catalog_Entry {\n" //
+                                                + "    @Indexed public String code;\n" //
+                                                + "}\n";
+    private static final String PLAIN   = "package sample;\n" //
+                                                + "public class Plain {\n" //
+                                                + "}\n";
+    private static final String DECOY   = "package sample;\n" //
+                                                + "public class Plain_IndexEntryMapper implements org.springframework.data.search.IndexEntryMapper<Catalog> {\n" //
+                                                + "    public Catalog map(org.springframework.data.search.IndexEntry entry) { return new Catalog(); }\n" //
+                                                + "}\n";
+    private static final String SEALED  = "package sample;\n" //
+                                                + "import org.springframework.data.search.annotation.Indexed;\n" //
+                                                + "public class Sealed {\n" //
+                                                + "    @Indexed private String id;\n" //
+                                                + "}\n";
+
+    private ClassLoader         classLoader;
+    private File                directory;
+
+    /**
+     * Compiles sample classes with the processor enabled.
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        this.directory = File.createTempFile("processor", "");
+        assertTrue(this.directory.delete() && this.directory.mkdirs());
+
+        final File source = new File(this.directory, "sample");
+        assertTrue(source.mkdirs());
+        FileCopyUtils.copy(CATALOG, new FileWriter(new File(source, "Catalog.java")));
+        FileCopyUtils.copy(ENTRY, new FileWriter(new File(source, "Catalog_Entry.java")));
+        FileCopyUtils.copy(PLAIN, new FileWriter(new File(source, "Plain.java")));
+        FileCopyUtils.copy(DECOY, new FileWriter(new File(source, "Plain_IndexEntryMapper.java")));
+        FileCopyUtils.copy(SEALED, new FileWriter(new File(source, "Sealed.java")));
+
+        final String classPath = this.getClassPath(Indexed.class, DataAccessException.class, NestedRuntimeException.class);
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        try
+        {
+            final Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(new File(source, "Catalog.java"), new File(source,
+                    "Catalog_Entry.java"), new File(source, "Plain.java"), new File(source, "Plain_IndexEntryMapper.java"), new File(source, "Sealed.java"));
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                    Arrays.asList("-classpath", classPath, "-d", this.directory.getPath(), "-s", this.directory.getPath()), null, units);
+            task.setProcessors(Collections.singletonList(new IndexedEntityProcessor()));
+
+            assertTrue(task.call());
+        }
+        finally
+        {
+            fileManager.close();
+        }
+
+        this.classLoader = new URLClassLoader(new URL[] { this.directory.toURI().toURL() }, this.getClass().getClassLoader());
+    }
+
+    /**
+     * Gets a class path made up of the locations from which classes have been
+     * loaded.
+     */
+    private String getClassPath(final Class<?>... classes)
+    {
+        final StringBuilder classPath = new StringBuilder();
+        for (Class<?> clazz : classes)
+        {
+            classPath.append(new File(clazz.getProtectionDomain().getCodeSource().getLocation().getPath()).getPath()).append(File.pathSeparator);
+        }
+
+        return classPath.toString();
+    }
+
+    /**
+     * Removes the compiled sample classes.
+     */
+    @After
+    public void tearDown()
+    {
+        FileSystemUtils.deleteRecursively(this.directory);
+    }
+
+    /**
+     * Tests that generated mappers and writers round trip indexed fields.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGeneratedMappings() throws Exception
+    {
+        final Class<Object> type = (Class<Object>) this.classLoader.loadClass("sample.Catalog");
+
+        final IndexEntryMapper<Object> mapper = GeneratedMappings.getMapper(type);
+        final IndexEntryWriter<Object> writer = GeneratedMappings.getWriter(type);
+        assertNotNull(mapper);
+        assertNotNull(writer);
+
+        final IndexEntry entry = new SimpleIndexEntry();
+        entry.put("id", "catalog");
+        entry.put("item_count", Long.valueOf(42));
+        entry.put("rank", Long.valueOf(7));
+        entry.put("tags", Arrays.asList("a", "b"));
+
+        final Object bean = mapper.map(entry);
+        assertEquals(type, bean.getClass());
+
+        final IndexEntry written = new SimpleIndexEntry();
+        writer.write(bean, written);
+
+        assertEquals("catalog", written.get("id"));
+        assertEquals(Integer.valueOf(42), written.get("item_count"));
+        assertEquals(Boolean.FALSE, written.get("available"));
+        assertEquals(Integer.valueOf(7), written.get("rank"));
+        assertEquals(Arrays.asList("a", "b"), written.get("tags"));
+        assertEquals(5, written.size());
+    }
+
+    /**
+     * Tests that values of an incompatible type are reported.
+     */
+    @Test(expected = IndexEntryMappingException.class)
+    @SuppressWarnings("unchecked")
+    public void testIncompatibleValue() throws Exception
+    {
+        final IndexEntry entry = new SimpleIndexEntry();
+        entry.put("tags", Integer.valueOf(1));
+
+        GeneratedMappings.getMapper((Class<Object>) this.classLoader.loadClass("sample.Catalog")).map(entry);
+    }
+
+    /**
+     * Tests that mappings are generated for static nested classes.
+     */
+    @Test
+    public void testNestedClass() throws Exception
+    {
+        assertNotNull(GeneratedMappings.getMapper(this.classLoader.loadClass("sample.Catalog$Entry")));
+        assertFalse(new File(this.directory, "sample/Catalog$Entry_IndexEntryMapper.java").exists());
+        assertTrue(new File(this.directory, "sample/Catalog_Entry_IndexEntryMapper.java").exists());
+    }
+
+    /**
+     * Tests that a nested class and a top-level class whose name joins the
+     * same names with an underscore get distinct generated classes.
+     */
+    @Test
+    public void testNestedAndUnderscoredClasses() throws Exception
+    {
+        final Class<?> nested = this.classLoader.loadClass("sample.Catalog$Entry");
+        final Class<?> underscored = this.classLoader.loadClass("sample.Catalog_Entry");
+
+        assertEquals(nested, GeneratedMappings.getMapper(nested).map(new SimpleIndexEntry()).getClass());
+        assertEquals(underscored, GeneratedMappings.getMapper(underscored).map(new SimpleIndexEntry()).getClass());
+        assertTrue(new File(this.directory, "sample/Catalog_$Entry_IndexEntryMapper.java").exists());
+    }
+
+    /**
+     * Tests that a class named like a generated mapper is not used for a
+     * class it does not handle.
+     */
+    @Test
+    public void testMismatchedGeneratedClass() throws Exception
+    {
+        assertNull(GeneratedMappings.getMapper(this.classLoader.loadClass("sample.Plain")));
+    }
+
+    /**
+     * Tests that classes whose indexed fields cannot be accessed from
+     * generated code are left to reflection.
+     */
+    @Test
+    public void testUnsupportedClass() throws Exception
+    {
+        assertNull(GeneratedMappings.getMapper(this.classLoader.loadClass("sample.Sealed")));
+        assertNull(GeneratedMappings.getWriter(this.classLoader.loadClass("sample.Sealed")));
+    }
+}
@@ -0,0 +1,522 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.util.NamedList;
+import org.springframework.data.search.IndexQueueFullException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends additions and deletions to another {@link SolrServer} in the
+ * background. Update requests are placed on a bounded queue, from which a
+ * fixed number of sender threads take as many requests as are waiting, up to
+ * a batch size, and send them with as few requests as possible. What happens
+ * to updates arriving while the queue is full depends on the
+ * {@link OverflowPolicy}. Any other update request, such as a commit or an
+ * optimize, waits for all queued updates to be sent before it is forwarded,
+ * and fails if any of them could not be sent. Queries are forwarded
+ * immediately.
+ * <p>
+ * Unlike {@link org.apache.solr.client.solrj.impl.StreamingUpdateSolrServer},
+ * this works with any type of {@link SolrServer}. Updates taken by different
+ * sender threads may reach the server in a different order than they were
+ * queued, so a single thread should be used if the same documents may be
+ * updated in quick succession. This class is thread-safe.
+ * </p>
+ *
+ * @author Manish Baxi
+ */
+final class AsyncUpdateSolrServer extends SolrServer
+{
+    private static final Logger                LOGGER           = LoggerFactory.getLogger(AsyncUpdateSolrServer.class);
+    private static final long                  serialVersionUID = 1L;
+    private static final long                  WINDOW           = TimeUnit.SECONDS.toNanos(1);
+
+    private final int                          batchSize;
+    private long                               callerRunRequests;
+    private volatile boolean                   closed;
+    private final SolrServer                   delegate;
+    private double                             drainRate;
+    private long                               failedRequests;
+    private long                               failedUpdates;
+    private Exception                          failure;
+    private int                                inFlightBatches;
+    private final OverflowPolicy               overflowPolicy;
+    private long                               pending;
+    private long                               pendingUpdates;
+    private final BlockingQueue<UpdateRequest> queue;
+    private volatile boolean                   running          = true;
+    private long                               rejectedRequests;
+    private final List<Thread>                 senders;
+    private long                               sentRequests;
+    private long                               windowCount;
+    private long                               windowStart      = System.nanoTime();
+
+    /**
+     * Starts the threads that send updates to a Solr server.
+     *
+     * @param delegate The {@link SolrServer} to send requests to.
+     * @param queueSize The maximum number of update requests that may wait to
+     *            be sent.
+     * @param threadCount The number of threads sending update requests.
+     * @param batchSize The maximum number of queued update requests that a
+     *            thread takes at a time.
+     * @param overflowPolicy What to do with update requests arriving while
+     *            the queue is full.
+     */
+    AsyncUpdateSolrServer(final SolrServer delegate, final int queueSize, final int threadCount, final int batchSize, final OverflowPolicy overflowPolicy)
+    {
+        this.batchSize = batchSize;
+        this.delegate = delegate;
+        this.overflowPolicy = overflowPolicy;
+        this.queue = new ArrayBlockingQueue<UpdateRequest>(queueSize);
+        this.senders = new ArrayList<Thread>(threadCount);
+
+        for (int i = 0; i < threadCount; ++i)
+        {
+            final Thread sender = new Thread("solr-update-sender-" + (i + 1))
+            {
+                @Override
+                public void run()
+                {
+                    AsyncUpdateSolrServer.this.send();
+                }
+            };
+            sender.setDaemon(true);
+            sender.start();
+
+            this.senders.add(sender);
+        }
+    }
+
+    /**
+     * Waits until all queued updates have been sent.
+     *
+     * @throws SolrServerException If any queued update could not be sent since
+     *             this method was last called.
+     */
+    void blockUntilFinished() throws SolrServerException
+    {
+        final Exception error;
+        synchronized (this)
+        {
+            while (this.pending != 0)
+            {
+                try
+                {
+                    this.wait();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+
+                    throw new SolrServerException("Interrupted while waiting for updates to be sent.", e);
+                }
+            }
+
+            error = this.failure;
+            this.failure = null;
+        }
+
+        if (error != null)
+        {
+            throw new SolrServerException("Unable to send queued updates to the Solr server.", error);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the state of the queue.
+     *
+     * @return An {@link UpdateQueueMetrics}.
+     */
+    synchronized UpdateQueueMetrics getMetrics()
+    {
+        final long elapsed = System.nanoTime() - this.windowStart;
+        final double rate = elapsed >= WINDOW ? this.windowCount * (double) WINDOW / elapsed : this.drainRate;
+        final int depth = this.queue.size();
+
+        return new UpdateQueueMetrics(depth, depth + this.queue.remainingCapacity(), this.inFlightBatches, this.sentRequests, this.failedRequests,
+                this.rejectedRequests, this.callerRunRequests, rate);
+    }
+
+    /**
+     * Stops accepting updates and waits for queued updates to be sent, giving
+     * up on any still queued once a timeout expires. The sender threads are
+     * then stopped.
+     *
+     * @param timeout The maximum time to wait, in milliseconds, or zero to
+     *            wait for as long as it takes.
+     * @return The number of additions and deletions that were not sent,
+     *         either because they were still queued when the timeout expired
+     *         or because sending them failed.
+     */
+    long drain(final long timeout)
+    {
+        final long deadline = System.currentTimeMillis() + timeout;
+        final long failedBefore;
+
+        this.closed = true;
+        synchronized (this)
+        {
+            failedBefore = this.failedUpdates;
+            while (this.pending != 0)
+            {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (timeout != 0 && remaining <= 0)
+                {
+                    break;
+                }
+
+                try
+                {
+                    this.wait(timeout == 0 ? 0 : remaining);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        this.running = false;
+
+        final List<UpdateRequest> unsent = new ArrayList<UpdateRequest>();
+        this.queue.drainTo(unsent);
+
+        final long dropped = countUpdates(unsent);
+        this.release(unsent.size(), dropped);
+
+        for (Thread sender : this.senders)
+        {
+            try
+            {
+                sender.join(timeout == 0 ? 0 : Math.max(1, deadline - System.currentTimeMillis()));
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        synchronized (this)
+        {
+            return dropped + this.failedUpdates - failedBefore;
+        }
+    }
+
+    /**
+     * Gets the number of additions and deletions that have been queued but
+     * not yet sent.
+     *
+     * @return The number of unsent updates.
+     */
+    synchronized long getPendingUpdates()
+    {
+        return this.pendingUpdates;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public NamedList<Object> request(final SolrRequest request) throws SolrServerException, IOException
+    {
+        if (!(request instanceof UpdateRequest))
+        {
+            return this.delegate.request(request);
+        }
+
+        final UpdateRequest update = (UpdateRequest) request;
+        if (!isQueueable(update))
+        {
+            this.blockUntilFinished();
+
+            return this.delegate.request(request);
+        }
+
+        this.enqueue(update);
+
+        return new NamedList<Object>();
+    }
+
+    /**
+     * Sends all queued updates and stops the sender threads. Updates cannot
+     * be queued once the server has been shut down.
+     *
+     * @throws SolrServerException If any queued update could not be sent.
+     */
+    void shutdown() throws SolrServerException
+    {
+        this.drain(0);
+        this.blockUntilFinished();
+    }
+
+    /**
+     * Places an update request on the queue, applying the overflow policy if
+     * the queue is full.
+     */
+    private void enqueue(final UpdateRequest update) throws SolrServerException, IOException
+    {
+        if (this.closed)
+        {
+            throw new IllegalStateException("Updates cannot be queued after the server has been shut down.");
+        }
+
+        final int updates = countUpdates(update);
+        synchronized (this)
+        {
+            ++this.pending;
+            this.pendingUpdates += updates;
+        }
+
+        final boolean queued;
+        try
+        {
+            if (this.overflowPolicy == OverflowPolicy.BLOCK)
+            {
+                this.queue.put(update);
+                queued = true;
+            }
+            else
+            {
+                queued = this.queue.offer(update);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            this.release(1, updates);
+            Thread.currentThread().interrupt();
+
+            throw new SolrServerException("Interrupted while waiting to queue an update.", e);
+        }
+
+        if (queued)
+        {
+            return;
+        }
+
+        this.release(1, updates);
+        if (this.overflowPolicy == OverflowPolicy.FAIL_FAST)
+        {
+            synchronized (this)
+            {
+                ++this.rejectedRequests;
+            }
+
+            throw new IndexQueueFullException("The queue of updates waiting to be sent to the Solr server is full.");
+        }
+
+        synchronized (this)
+        {
+            ++this.callerRunRequests;
+        }
+        this.delegate.request(update);
+    }
+
+    /**
+     * Takes batches of update requests off the queue and sends them until the
+     * server is shut down.
+     */
+    private void send()
+    {
+        final List<UpdateRequest> batch = new ArrayList<UpdateRequest>(this.batchSize);
+        while (this.running || !this.queue.isEmpty())
+        {
+            try
+            {
+                final UpdateRequest first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                {
+                    continue;
+                }
+
+                batch.add(first);
+                this.queue.drainTo(batch, this.batchSize - 1);
+            }
+            catch (InterruptedException e)
+            {
+                LOGGER.warn("Update sender interrupted, stopping.");
+                return;
+            }
+
+            synchronized (this)
+            {
+                ++this.inFlightBatches;
+            }
+
+            final long updates = countUpdates(batch);
+            boolean sent = false;
+            try
+            {
+                this.send(batch);
+                sent = true;
+            }
+            catch (Exception e)
+            {
+                LOGGER.error("Unable to send queued updates to the Solr server.", e);
+                synchronized (this)
+                {
+                    if (this.failure == null)
+                    {
+                        this.failure = e;
+                    }
+                }
+            }
+            finally
+            {
+                this.sent(batch.size(), updates, sent);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Sends a batch of update requests, merging consecutive requests that only
+     * add documents into one request.
+     */
+    private void send(final List<UpdateRequest> batch) throws SolrServerException, IOException
+    {
+        UpdateRequest merged = null;
+        for (UpdateRequest update : batch)
+        {
+            if (merged != null && (!isAddOnly(update) || update.getCommitWithin() != merged.getCommitWithin()))
+            {
+                this.delegate.request(merged);
+                merged = null;
+            }
+
+            if (!isAddOnly(update))
+            {
+                this.delegate.request(update);
+            }
+            else if (merged == null)
+            {
+                merged = new UpdateRequest();
+                merged.setCommitWithin(update.getCommitWithin());
+                merged.add(update.getDocuments());
+            }
+            else
+            {
+                merged.add(update.getDocuments());
+            }
+        }
+
+        if (merged != null)
+        {
+            this.delegate.request(merged);
+        }
+    }
+
+    /**
+     * Records that a number of update requests are no longer waiting to be
+     * sent.
+     */
+    private synchronized void release(final int count, final long updates)
+    {
+        this.pending -= count;
+        this.pendingUpdates -= updates;
+        if (this.pending == 0)
+        {
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * Records that a batch of queued update requests has been dealt with,
+     * updating the drain rate once a second.
+     */
+    private synchronized void sent(final int count, final long updates, final boolean success)
+    {
+        --this.inFlightBatches;
+        if (success)
+        {
+            this.sentRequests += count;
+        }
+        else
+        {
+            this.failedRequests += count;
+            this.failedUpdates += updates;
+        }
+
+        this.windowCount += count;
+
+        final long now = System.nanoTime();
+        if (now - this.windowStart >= WINDOW)
+        {
+            this.drainRate = this.windowCount * (double) WINDOW / (now - this.windowStart);
+            this.windowCount = 0;
+            this.windowStart = now;
+        }
+
+        this.release(count, updates);
+    }
+
+    /**
+     * Counts the additions and deletions in an update request.
+     */
+    private static int countUpdates(final UpdateRequest update)
+    {
+        return (update.getDocuments() == null ? 0 : update.getDocuments().size()) + (update.getDeleteById() == null ? 0 : update.getDeleteById().size())
+                + (update.getDeleteQuery() == null ? 0 : update.getDeleteQuery().size());
+    }
+
+    /**
+     * Counts the additions and deletions in a number of update requests.
+     */
+    private static long countUpdates(final List<UpdateRequest> updates)
+    {
+        long count = 0;
+        for (UpdateRequest update : updates)
+        {
+            count += countUpdates(update);
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks whether an update request only adds documents.
+     */
+    private static boolean isAddOnly(final UpdateRequest update)
+    {
+        return update.getDocuments() != null && update.getDeleteById() == null && update.getDeleteQuery() == null;
+    }
+
+    /**
+     * Checks whether an update request only adds or deletes documents, so that
+     * it can be sent in the background.
+     */
+    private static boolean isQueueable(final UpdateRequest update)
+    {
+        return update.getAction() == null && (update.getParams() == null || !update.getParams().getParameterNamesIterator().hasNext())
+                && update.getDocIterator() == null && (update.getDocuments() != null || update.getDeleteById() != null || update.getDeleteQuery() != null);
+    }
+}
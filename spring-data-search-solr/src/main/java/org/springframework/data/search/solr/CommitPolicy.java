@@ -0,0 +1,49 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+/**
+ * Strategies for committing additions and deletions made through a
+ * {@link SolrTemplate} when automatic commits are enabled.
+ *
+ * @author Manish Baxi
+ * @see SolrTemplate#setCommitPolicy(CommitPolicy)
+ */
+public enum CommitPolicy
+{
+    /**
+     * Issues a hard commit after every update, which makes the update visible
+     * to queries before the call returns.
+     */
+    HARD,
+
+    /**
+     * Asks the Solr server to commit each update within a set time, leaving
+     * the server free to merge commits for updates received close together.
+     *
+     * @see SolrTemplate#setCommitWithin(int)
+     */
+    COMMIT_WITHIN,
+
+    /**
+     * Issues hard commits, but merges commits requested while another commit
+     * is in progress into one, so that concurrent writers share commits. As
+     * with {@link #HARD}, an update is visible to queries before the call
+     * returns.
+     */
+    COALESCED
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+/**
+ * Reports what happened to the additions and deletions that were waiting to
+ * be sent when a {@link SolrTemplate} was stopped.
+ *
+ * @author Manish Baxi
+ * @see SolrTemplate#close()
+ */
+public final class DrainResult
+{
+    private final long droppedCount;
+    private final long flushedCount;
+
+    /**
+     * Sets the number of updates flushed and dropped.
+     *
+     * @param flushedCount The number of pending updates sent to the server.
+     * @param droppedCount The number of pending updates that were not sent.
+     */
+    DrainResult(final long flushedCount, final long droppedCount)
+    {
+        this.droppedCount = droppedCount;
+        this.flushedCount = flushedCount;
+    }
+
+    /**
+     * Gets the number of pending updates that were not sent, either because
+     * they could not be sent before the shutdown timeout expired or because
+     * sending them failed.
+     *
+     * @return The number of dropped updates.
+     */
+    public long getDroppedCount()
+    {
+        return this.droppedCount;
+    }
+
+    /**
+     * Gets the number of pending updates that were sent to the server.
+     *
+     * @return The number of flushed updates.
+     */
+    public long getFlushedCount()
+    {
+        return this.flushedCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return "flushed=" + this.flushedCount + ", dropped=" + this.droppedCount;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import java.util.Collection;
+
+/**
+ * Callback for objects that need to know when entries in a search index are
+ * changed through a {@link SolrOperations} instance, such as caches of those
+ * entries. Listeners are called after each addition or deletion has been
+ * sent, whether or not it succeeded, on the thread that made the change.
+ * Changes that were not committed as they were sent are reported again once
+ * they have been committed, or once a batch of them has been sent if updates
+ * are batched.
+ *
+ * @author Manish Baxi
+ * @see SolrOperations#addIndexChangeListener(IndexChangeListener)
+ */
+public interface IndexChangeListener
+{
+    /**
+     * Called when specific entries have been added, replaced or deleted.
+     *
+     * @param ids The unique identifiers of the changed entries.
+     */
+    void entriesChanged(Collection<String> ids);
+
+    /**
+     * Called when an unknown set of entries may have changed, such as after a
+     * deletion by query.
+     */
+    void indexChanged();
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+/**
+ * Strategies for dealing with updates that arrive while the queue of streamed
+ * updates is full.
+ *
+ * @author Manish Baxi
+ * @see SolrTemplate#setOverflowPolicy(OverflowPolicy)
+ */
+public enum OverflowPolicy
+{
+    /**
+     * Blocks the caller until there is space on the queue.
+     */
+    BLOCK,
+
+    /**
+     * Rejects the update with an
+     * {@link org.springframework.data.search.IndexQueueFullException}.
+     */
+    FAIL_FAST,
+
+    /**
+     * Sends the update to the Solr server on the calling thread, bypassing
+     * the queue. The update may therefore reach the server before updates
+     * that were queued earlier.
+     */
+    CALLER_RUNS
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+/**
+ * Merges commits requested concurrently into as few commits as possible. A
+ * caller requesting a commit while another commit is in progress waits for
+ * that commit to finish, and then either returns, if a commit started after
+ * its request has completed in the meantime, or starts a single commit on
+ * behalf of every caller that has been waiting. This class is thread-safe.
+ *
+ * @author Manish Baxi
+ */
+final class SolrCommitCoalescer
+{
+    private boolean              committing;
+    private long                 completed;
+    private final SolrOperations operations;
+    private long                 requested;
+
+    /**
+     * Sets the operations through which commits are performed.
+     *
+     * @param operations The {@link SolrOperations} to commit through.
+     */
+    SolrCommitCoalescer(final SolrOperations operations)
+    {
+        this.operations = operations;
+    }
+
+    /**
+     * Returns once all updates made before this method was called have been
+     * committed.
+     */
+    void commit()
+    {
+        final long target;
+        synchronized (this)
+        {
+            final long ticket = ++this.requested;
+            while (this.committing)
+            {
+                try
+                {
+                    this.wait();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+
+                    throw new IllegalStateException("Interrupted while waiting for a commit.", e);
+                }
+            }
+
+            if (this.completed >= ticket)
+            {
+                return;
+            }
+
+            this.committing = true;
+            target = this.requested;
+        }
+
+        boolean committed = false;
+        try
+        {
+            this.operations.commit();
+            committed = true;
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                this.committing = false;
+                if (committed)
+                {
+                    this.completed = target;
+                }
+
+                this.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the number of documents matching queries until the next write. Each
+ * write moves the cache to a new generation, and a count is only cached if no
+ * write started while it was being computed, so that a count computed before
+ * a write became visible is never returned after it. This class is
+ * thread-safe.
+ *
+ * @author Manish Baxi
+ */
+final class SolrCountCache
+{
+    private static final int                    MAX_ENTRIES = 1000;
+
+    private final ConcurrentMap<String, long[]> counts      = new ConcurrentHashMap<String, long[]>();
+    private final AtomicLong                    generation  = new AtomicLong();
+
+    /**
+     * Gets the cached number of documents matching a query.
+     *
+     * @param query The query.
+     * @return The cached count, or <code>null</code> if there is none for the
+     *         current generation.
+     */
+    Long get(final String query)
+    {
+        final long[] entry = this.counts.get(query);
+
+        return entry != null && entry[0] == this.generation.get() ? entry[1] : null;
+    }
+
+    /**
+     * Gets the current generation, to be passed to
+     * {@link #put(String, long, long)} once a count has been computed.
+     *
+     * @return The current generation.
+     */
+    long getGeneration()
+    {
+        return this.generation.get();
+    }
+
+    /**
+     * Discards all cached counts.
+     */
+    void invalidate()
+    {
+        this.generation.incrementAndGet();
+        this.counts.clear();
+    }
+
+    /**
+     * Caches the number of documents matching a query, unless the cache has
+     * been invalidated since the count was started.
+     *
+     * @param query The query.
+     * @param generation The generation when the count was started.
+     * @param count The number of matching documents.
+     */
+    void put(final String query, final long generation, final long count)
+    {
+        if (generation == this.generation.get())
+        {
+            if (this.counts.size() >= MAX_ENTRIES)
+            {
+                this.counts.clear();
+            }
+
+            this.counts.put(query, new long[] { generation, count });
+        }
+    }
+}
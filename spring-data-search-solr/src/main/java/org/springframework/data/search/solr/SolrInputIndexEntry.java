@@ -0,0 +1,290 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.springframework.data.search.IndexEntry;
+
+/**
+ * Represents an entry to be added to a Solr search index. A thin wrapper
+ * around a {@link SolrInputDocument}, so that the entry can be sent to the
+ * Solr server as is instead of being copied into a new document first. Field
+ * values are exposed as the values of the map, while field boosts and the
+ * document boost are left at their defaults.
+ * 
+ * @author Manish Baxi
+ */
+public class SolrInputIndexEntry extends AbstractMap<String, Object> implements IndexEntry
+{
+    private final SolrInputDocument solrInputDocument;
+
+    /**
+     * Wraps a new, empty Solr input document.
+     */
+    public SolrInputIndexEntry()
+    {
+        this(new SolrInputDocument());
+    }
+
+    /**
+     * Sets the Solr input document that this instance wraps.
+     * 
+     * @param solrInputDocument A {@link SolrInputDocument}.
+     */
+    public SolrInputIndexEntry(final SolrInputDocument solrInputDocument)
+    {
+        this.solrInputDocument = solrInputDocument;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear()
+    {
+        this.solrInputDocument.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(final Object key)
+    {
+        return this.solrInputDocument.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet()
+    {
+        return new AbstractSet<Entry<String, Object>>()
+        {
+            @Override
+            public Iterator<Entry<String, Object>> iterator()
+            {
+                final Iterator<SolrInputField> fields = SolrInputIndexEntry.this.solrInputDocument.values().iterator();
+
+                return new Iterator<Entry<String, Object>>()
+                {
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return fields.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next()
+                    {
+                        return new FieldEntry(fields.next());
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        fields.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return SolrInputIndexEntry.this.solrInputDocument.size();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object get(final Object key)
+    {
+        final SolrInputField field = this.solrInputDocument.get(key);
+
+        return field == null ? null : field.getValue();
+    }
+
+    /**
+     * Always returns <code>null</code>, as entries being indexed have not
+     * been matched against a query.
+     */
+    @Override
+    public Float getScore()
+    {
+        return null;
+    }
+
+    /**
+     * Gets the Solr input document that this instance wraps.
+     * 
+     * @return A {@link SolrInputDocument}.
+     */
+    public SolrInputDocument getSolrInputDocument()
+    {
+        return this.solrInputDocument;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty()
+    {
+        return this.solrInputDocument.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet()
+    {
+        return this.solrInputDocument.keySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object put(final String key, final Object value)
+    {
+        final SolrInputField field = this.solrInputDocument.get(key);
+        if (field == null)
+        {
+            this.solrInputDocument.setField(key, value);
+
+            return null;
+        }
+
+        final Object previous = field.getValue();
+        field.setValue(value, field.getBoost());
+
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(final Map<? extends String, ? extends Object> m)
+    {
+        for (Entry<? extends String, ? extends Object> entry : m.entrySet())
+        {
+            this.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object remove(final Object key)
+    {
+        final SolrInputField field = this.solrInputDocument.remove(key);
+
+        return field == null ? null : field.getValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+        return this.solrInputDocument.size();
+    }
+
+    /**
+     * Exposes a field of the wrapped document as a map entry.
+     */
+    private static final class FieldEntry implements Entry<String, Object>
+    {
+        private final SolrInputField field;
+
+        private FieldEntry(final SolrInputField field)
+        {
+            this.field = field;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (!(o instanceof Entry))
+            {
+                return false;
+            }
+
+            final Entry<?, ?> other = (Entry<?, ?>) o;
+
+            return this.field.getName().equals(other.getKey())
+                    && (this.field.getValue() == null ? other.getValue() == null : this.field.getValue().equals(other.getValue()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getKey()
+        {
+            return this.field.getName();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object getValue()
+        {
+            return this.field.getValue();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode()
+        {
+            return this.field.getName().hashCode() ^ (this.field.getValue() == null ? 0 : this.field.getValue().hashCode());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object setValue(final Object value)
+        {
+            final Object previous = this.field.getValue();
+            this.field.setValue(value, this.field.getBoost());
+
+            return previous;
+        }
+    }
+}
@@ -16,7 +16,12 @@
 
 package org.springframework.data.search.solr;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServer;
+import org.springframework.data.search.QueryResponse;
 import org.springframework.data.search.SearchOperations;
 
 /**
@@ -24,16 +29,120 @@ import org.springframework.data.search.SearchOperations;
  */
 public interface SolrOperations extends SearchOperations
 {
+    /**
+     * Registers a listener to be told about additions and deletions made
+     * through this instance.
+     * 
+     * @param listener The {@link IndexChangeListener} to register.
+     */
+    void addIndexChangeListener(IndexChangeListener listener);
+
     /**
      * Performs an explicit commit, causing pending documents to be committed
      * for indexing.
      */
     void commit();
 
+    /**
+     * Counts the index entries matching a query without fetching any of them.
+     * 
+     * @param query The query for the entries to count.
+     * @return The number of matching entries.
+     */
+    long count(String query);
+
+    /**
+     * Deletes multiple index entries specified by their unique identifiers,
+     * optionally leaving them uncommitted so that a series of deletions can be
+     * committed together.
+     * 
+     * @param ids The unique identifiers of the entries to delete.
+     * @param commit Whether to commit once the entries have been deleted, if
+     *            automatic commits are enabled.
+     */
+    void delete(Collection<String> ids, boolean commit);
+
+    /**
+     * Checks whether an index entry exists, without fetching it.
+     * 
+     * @param id The unique identifier of the entry.
+     * @return Whether an entry with the identifier exists.
+     */
+    boolean exists(String id);
+
+    /**
+     * Finds the index entries with any of a number of unique identifiers,
+     * fetching many entries per query instead of one query per identifier.
+     * 
+     * @param ids The unique identifiers of the entries to find.
+     * @param clazz The {@link Class} for the results.
+     * @return The objects found, in the order in which their identifiers were
+     *         first given. Identifiers that match no entry are skipped.
+     */
+    <T> List<T> findByIds(Iterable<String> ids, Class<T> clazz);
+
+    /**
+     * Finds the index entry with a unique identifier.
+     * 
+     * @param id The unique identifier of the entry to find.
+     * @param clazz The {@link Class} for the result.
+     * @return The object found, or <code>null</code> if there is no entry with
+     *         the identifier.
+     */
+    <T> T findById(String id, Class<T> clazz);
+
+    /**
+     * Sends any additions and deletions that have been batched but not yet
+     * sent to the Solr server. Does nothing if updates are not being batched.
+     */
+    void flush();
+
     /**
      * Gets the Solr server currently in use.
      * 
      * @return A {@link SolrServer}.
      */
     SolrServer getSolrServer();
+
+    /**
+     * Adds multiple indexable objects to a search index, optionally leaving
+     * them uncommitted so that a series of additions can be committed
+     * together.
+     * 
+     * @param beans The objects to index.
+     * @param commit Whether to commit once the objects have been indexed, if
+     *            automatic commits are enabled.
+     * @return The unique identifiers of the search index entries for the
+     *         indexed objects.
+     */
+    <T> Collection<String> index(Collection<T> beans, boolean commit);
+
+    /**
+     * Checks whether additions and deletions only become visible once they
+     * are committed through these operations. Only then are index change
+     * listeners told about every change by the time it becomes visible, so
+     * that entries looked up may safely be cached until they are reported as
+     * changed.
+     * 
+     * @return Whether changes become visible only when committed.
+     */
+    boolean isVisibleOnCommit();
+
+    /**
+     * Removes a listener registered with
+     * {@link #addIndexChangeListener(IndexChangeListener)}.
+     * 
+     * @param listener The {@link IndexChangeListener} to remove.
+     */
+    void removeIndexChangeListener(IndexChangeListener listener);
+
+    /**
+     * Performs a query on the underlying Solr server, allowing any Solr
+     * specific parameters to be set on the query.
+     * 
+     * @param query The {@link SolrQuery} to be performed.
+     * @return A {@link QueryResponse} holding the search index entries matching
+     *         the query, along with the total number of matching entries.
+     */
+    QueryResponse query(SolrQuery query);
 }
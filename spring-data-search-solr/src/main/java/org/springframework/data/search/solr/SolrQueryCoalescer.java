@@ -0,0 +1,112 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.search.QueryResponse;
+
+/**
+ * Merges identical queries performed concurrently into a single request to the
+ * Solr server. The first caller to perform a query sends it, and callers
+ * performing the same query before it completes wait for and share its
+ * response, or its failure, instead of sending the query again. Once the
+ * query has completed, the next caller sends it afresh. This class is
+ * thread-safe.
+ *
+ * @author Manish Baxi
+ */
+final class SolrQueryCoalescer
+{
+    private final AtomicLong                                       collapsedCount = new AtomicLong();
+    private final ConcurrentMap<String, FutureTask<QueryResponse>> inFlight       = new ConcurrentHashMap<String, FutureTask<QueryResponse>>();
+
+    /**
+     * Gets the number of queries that shared the response of an identical
+     * query instead of being sent to the server.
+     *
+     * @return The number of collapsed queries.
+     */
+    long getCollapsedCount()
+    {
+        return this.collapsedCount.get();
+    }
+
+    /**
+     * Performs a query, unless an identical query is already in progress, in
+     * which case waits for its response.
+     *
+     * @param key The key identifying the query, which must include everything
+     *            that affects its response.
+     * @param query The {@link Callable} that sends the query.
+     * @return The {@link QueryResponse} for the query.
+     */
+    QueryResponse query(final String key, final Callable<QueryResponse> query)
+    {
+        final FutureTask<QueryResponse> task = new FutureTask<QueryResponse>(query);
+
+        final FutureTask<QueryResponse> existing = this.inFlight.putIfAbsent(key, task);
+        if (existing != null)
+        {
+            this.collapsedCount.incrementAndGet();
+
+            return await(existing);
+        }
+
+        try
+        {
+            task.run();
+        }
+        finally
+        {
+            this.inFlight.remove(key, task);
+        }
+
+        return await(task);
+    }
+
+    /**
+     * Waits for a query to complete.
+     */
+    private static QueryResponse await(final FutureTask<QueryResponse> task)
+    {
+        try
+        {
+            return task.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while waiting for search results.", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException("Unable to fetch search results.", e.getCause());
+        }
+    }
+}
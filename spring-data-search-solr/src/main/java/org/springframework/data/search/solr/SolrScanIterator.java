@@ -0,0 +1,189 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.springframework.data.search.IndexEntry;
+import org.springframework.data.search.IndexEntryMapper;
+import org.springframework.data.search.QueryResponse;
+
+/**
+ * Iterates over all the results of a query in batches, paging by the document
+ * identifier instead of by offset. Each batch is sorted by the identifier and
+ * the next batch is requested for identifiers greater than the last one seen,
+ * so every batch costs the same regardless of how deep into the results it
+ * lies. The next batch is fetched in the background while the current one is
+ * being consumed. This class is not thread-safe.
+ *
+ * @author Manish Baxi
+ */
+final class SolrScanIterator<T> implements Iterator<T>
+{
+    private final int                      batchSize;
+    private Iterator<? extends IndexEntry> current;
+    private final Executor                 executor;
+    private final String[]                 fields;
+    private final String                   idField;
+    private final IndexEntryMapper<T>      mapper;
+    private FutureTask<QueryResponse>      next;
+    private final SolrOperations           operations;
+    private final String                   query;
+
+    /**
+     * Starts fetching the first batch of results for a query.
+     *
+     * @param operations The {@link SolrOperations} to perform queries with.
+     * @param query The query to be performed.
+     * @param batchSize The number of results to fetch at a time.
+     * @param idField The name of the unique document identifier field.
+     * @param fields The names of the fields to fetch, or an empty array to
+     *            fetch all stored fields.
+     * @param mapper The {@link IndexEntryMapper} for converting results.
+     * @param executor The {@link Executor} for fetching batches.
+     */
+    SolrScanIterator(final SolrOperations operations, final String query, final int batchSize, final String idField, final String[] fields,
+            final IndexEntryMapper<T> mapper, final Executor executor)
+    {
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.fields = fields;
+        this.idField = idField;
+        this.mapper = mapper;
+        this.operations = operations;
+        this.query = query;
+
+        this.next = this.fetch(null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext()
+    {
+        while ((this.current == null || !this.current.hasNext()) && this.next != null)
+        {
+            final Collection<? extends IndexEntry> entries = this.await(this.next).getMatchingEntries();
+
+            this.next = null;
+            if (entries.size() == this.batchSize)
+            {
+                IndexEntry last = null;
+                for (IndexEntry entry : entries)
+                {
+                    last = entry;
+                }
+
+                this.next = this.fetch(String.valueOf(last.get(this.idField)));
+            }
+
+            this.current = entries.iterator();
+        }
+
+        return this.current != null && this.current.hasNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T next()
+    {
+        if (!this.hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+
+        return this.mapper.map(this.current.next());
+    }
+
+    /**
+     * Throws {@link UnsupportedOperationException}.
+     */
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException("Search results cannot be removed while scanning.");
+    }
+
+    /**
+     * Waits for a batch of results to be fetched, fetching it on the calling
+     * thread if no executor thread has started fetching it yet.
+     */
+    private QueryResponse await(final FutureTask<QueryResponse> task)
+    {
+        task.run();
+        try
+        {
+            return task.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while waiting for search results.", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException("Unable to fetch search results.", e.getCause());
+        }
+    }
+
+    /**
+     * Starts fetching the batch of results following a document identifier.
+     */
+    private FutureTask<QueryResponse> fetch(final String lastId)
+    {
+        final SolrQuery solrQuery = new SolrQuery(this.query);
+        solrQuery.setRows(this.batchSize);
+        if (this.fields.length != 0)
+        {
+            solrQuery.setFields(this.fields);
+            solrQuery.addField(this.idField);
+        }
+        solrQuery.addSortField(this.idField, SolrQuery.ORDER.asc);
+        if (lastId != null)
+        {
+            solrQuery.addFilterQuery("{!cache=false}" + this.idField + ":{\"" + lastId.replace("\\", "\\\\").replace("\"", "\\\"") + "\" TO *}");
+        }
+
+        final FutureTask<QueryResponse> task = new FutureTask<QueryResponse>(new Callable<QueryResponse>()
+        {
+            @Override
+            public QueryResponse call()
+            {
+                return SolrScanIterator.this.operations.query(solrQuery);
+            }
+        });
+        this.executor.execute(task);
+
+        return task;
+    }
+}
@@ -21,8 +21,20 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -32,17 +44,25 @@ import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
 import org.apache.solr.client.solrj.impl.CommonsHttpSolrServer;
 import org.apache.solr.client.solrj.impl.LBHttpSolrServer;
-import org.apache.solr.client.solrj.impl.StreamingUpdateSolrServer;
 import org.apache.solr.client.solrj.response.SolrPingResponse;
 import org.apache.solr.client.solrj.response.UpdateResponse;
-import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.core.CoreContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.search.IndexEntry;
+import org.springframework.data.search.IndexEntryMapper;
+import org.springframework.data.search.InvalidOperationException;
 import org.springframework.data.search.QueryResponse;
+import org.springframework.data.search.QueryResultCache;
 import org.springframework.data.search.SearchTemplate;
 import org.springframework.data.search.util.PathUtil;
 import org.springframework.util.Assert;
@@ -56,19 +76,41 @@ import org.xml.sax.SAXException;
  * @author Vincent Devillers
  * @author Manish Baxi
  */
-public class SolrTemplate extends SearchTemplate implements SolrOperations
+public class SolrTemplate extends SearchTemplate implements SolrOperations, DisposableBean, SmartLifecycle
 {
-    private static final String       DEFAULT_DOCUMENT_ID_FIELD = "id";
-    private static final String       SCORE_FIELD               = "score";
+    private static final String             DEFAULT_DOCUMENT_ID_FIELD = "id";
+    private static final Logger             LOGGER                    = LoggerFactory.getLogger(SolrTemplate.class);
+    private static final String             SCORE_FIELD               = "score";
 
-    private boolean                   allowStreaming            = false;
-    private boolean                   autoCommit                = true;
-    private boolean                   autoGenerateIdField       = true;
-    private String                    documentIdField           = DEFAULT_DOCUMENT_ID_FIELD;
-    private StreamingUpdateSolrServer indexServer               = null;
-    private int                       queueSize;
-    private SolrServer                searchServer;
-    private int                       threadCount;
+    private boolean                         allowStreaming            = false;
+    private boolean                         autoCommit                = true;
+    private boolean                         autoGenerateIdField       = true;
+    private boolean                         cacheCounts;
+    private final List<IndexChangeListener> changeListeners           = new CopyOnWriteArrayList<IndexChangeListener>();
+    private volatile boolean                coalesceQueries;
+    private long                            coalescedUpdates;
+    private SolrCommitCoalescer             commitCoalescer;
+    private CommitPolicy                    commitPolicy              = CommitPolicy.HARD;
+    private int                             commitWithin              = 1000;
+    private final SolrCountCache            countCache                = new SolrCountCache();
+    private String                          documentIdField           = DEFAULT_DOCUMENT_ID_FIELD;
+    private int                             idLookupBatchSize         = 100;
+    private AsyncUpdateSolrServer           indexServer               = null;
+    private final AtomicLong                notifiedChanges           = new AtomicLong();
+    private OverflowPolicy                  overflowPolicy            = OverflowPolicy.BLOCK;
+    private int                             phase;
+    private final SolrQueryCoalescer        queryCoalescer            = new SolrQueryCoalescer();
+    private int                             queueSize                 = 1000;
+    private volatile boolean                running                   = true;
+    private Executor                        scanExecutor;
+    private SolrServer                      searchServer;
+    private long                            shutdownTimeout           = 30000;
+    private int                             streamingBatchSize        = 100;
+    private int                             threadCount               = 1;
+    private final AtomicLong                uncommittedChanges        = new AtomicLong();
+    private int                             updateBatchLatency        = 1000;
+    private int                             updateBatchSize;
+    private volatile SolrUpdateBuffer       updateBuffer;
 
     /**
      * Initializes a Solr server based on basic configuration information
@@ -112,11 +154,16 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
 
         this.searchServer = server;
         this.setExceptionTranslator(new SolrExceptionTranslator());
+
+        this.scanExecutor = this.getDefaultExecutor();
+        this.commitCoalescer = new SolrCommitCoalescer(this);
     }
 
     /**
      * Allows streaming search entries to the Solr server if the template
-     * configuration has been set to enforce streaming.
+     * configuration has been set to enforce streaming. Streamed updates are
+     * queued and sent in the background by {@link AsyncUpdateSolrServer},
+     * which works with any type of Solr server.
      */
     @Override
     public void afterPropertiesSet() throws Exception
@@ -125,26 +172,49 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
 
         if (this.allowStreaming)
         {
-            if (this.searchServer instanceof CommonsHttpSolrServer)
-            {
-                this.indexServer = new StreamingUpdateSolrServer(((CommonsHttpSolrServer) this.searchServer).getBaseURL(), this.queueSize, this.threadCount);
-            }
-            else
-            {
-                throw new IllegalArgumentException("Cannot allow streaming update on solr server other than CommonsHttpSolrServer instance!");
-            }
+            Assert.isTrue(this.queueSize > 0, "Queue size must be positive");
+            Assert.isTrue(this.threadCount > 0, "Thread count must be positive");
+            Assert.isTrue(this.streamingBatchSize > 0, "Streaming batch size must be positive");
+            Assert.notNull(this.overflowPolicy, "Overflow policy cannot be null!");
+
+            this.indexServer = this.createIndexServer();
         }
 
         Assert.hasText(documentIdField, "The document id field have to be setted");
+        Assert.notNull(this.scanExecutor, "Scan executor cannot be null!");
+        Assert.notNull(this.commitPolicy, "Commit policy cannot be null!");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addIndexChangeListener(final IndexChangeListener listener)
+    {
+        Assert.notNull(listener, "Listener must not be null");
+
+        this.changeListeners.add(listener);
+    }
+
+    /**
+     * Sends one chunk of entries while indexing a stream of objects, or a
+     * collection converted in parallel, committing only after the last chunk.
+     */
+    @Override
+    protected Collection<String> addChunk(final List<IndexEntry> entries, final boolean last)
+    {
+        return this.add(entries, last);
     }
 
     /**
-     * Builds a new index entry that can be added to a Solr search index.
+     * Builds a new index entry that can be added to a Solr search index. The
+     * entry is backed by the {@link SolrInputDocument} that is eventually sent
+     * to the Solr server, so that no copies are made while indexing.
      */
     @Override
     protected IndexEntry buildIndexEntry()
     {
-        return new SolrIndexEntry(new SolrDocument());
+        return new SolrInputIndexEntry();
     }
 
     /**
@@ -153,21 +223,27 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
     @Override
     public String add(final IndexEntry document)
     {
+        assertRunning();
+        this.invalidateCaches();
+
         String id = addIdToDocumentIfEnabled(document);
-        org.apache.solr.common.SolrDocument solrDocument = new org.apache.solr.common.SolrDocument();
-        solrDocument.putAll(document);
         try
         {
-            addDocument(solrDocument);
-            if (isAutoCommit())
-            {
-                commit();
-            }
+            addDocument(toSolrInputDocument(document));
+            commitIfNotBatching();
+        }
+        catch (DataAccessException e)
+        {
+            throw e;
         }
         catch (Exception e)
         {
             throw potentiallyConvertCheckedException(new RuntimeException(e.getCause()));
         }
+        finally
+        {
+            this.fireEntriesChanged(Collections.singletonList(id));
+        }
         return id;
     }
 
@@ -177,35 +253,59 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
     @Override
     public Collection<String> add(final Collection<IndexEntry> documents)
     {
-        org.apache.solr.common.SolrDocument solrDocument;
-        List<String> ids = new ArrayList<String>(documents.size());
+        return this.add(documents, true);
+    }
+
+    /**
+     * Adds multiple entries to a search index, sending them to the Solr
+     * server together, and optionally committing them.
+     * 
+     * @param documents The entries to add.
+     * @param commit Whether to commit once the entries have been added, if
+     *            automatic commits are enabled.
+     * @return The unique identifiers of the added entries.
+     */
+    private Collection<String> add(final Collection<IndexEntry> documents, final boolean commit)
+    {
+        assertRunning();
+        this.invalidateCaches();
+
+        final List<String> ids = new ArrayList<String>(documents.size());
+        final List<SolrInputDocument> solrInputDocuments = new ArrayList<SolrInputDocument>(documents.size());
 
         for (IndexEntry document : documents)
         {
             ids.add(addIdToDocumentIfEnabled(document));
-            solrDocument = new org.apache.solr.common.SolrDocument();
-            solrDocument.putAll(document);
-            try
-            {
-                addDocument(solrDocument);
-            }
-            catch (Exception e)
-            {
-                throw potentiallyConvertCheckedException(new RuntimeException(e.getCause()));
-            }
+            solrInputDocuments.add(toSolrInputDocument(document));
         }
 
         try
         {
-            if (isAutoCommit())
+            if (!solrInputDocuments.isEmpty())
             {
-                commit();
+                addDocuments(solrInputDocuments);
+            }
+            if (commit)
+            {
+                commitIfNotBatching();
+            }
+            else
+            {
+                this.uncommittedChanges.incrementAndGet();
             }
         }
+        catch (DataAccessException e)
+        {
+            throw e;
+        }
         catch (Exception e)
         {
             throw potentiallyConvertCheckedException(new RuntimeException(e.getCause()));
         }
+        finally
+        {
+            this.fireEntriesChanged(ids);
+        }
         return ids;
     }
 
@@ -217,16 +317,61 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
     {
         try
         {
-            searchServer.commit();
+            if (this.updateBuffer != null)
+            {
+                this.updateBuffer.flush();
+            }
             if (allowStreaming)
             {
                 indexServer.commit();
             }
+            else
+            {
+                searchServer.commit();
+            }
         }
         catch (Exception e)
         {
             throw potentiallyConvertCheckedException(new RuntimeException(e.getCause()));
         }
+        finally
+        {
+            this.invalidateCaches();
+            this.fireIndexChangedIfUncommitted();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see #setCacheCounts(boolean)
+     */
+    @Override
+    public long count(final String query)
+    {
+        Assert.notNull(query, "Query must not be null");
+
+        final boolean cacheable = this.cacheCounts && this.isVisibleOnCommit();
+        final long generation = this.countCache.getGeneration();
+        if (cacheable)
+        {
+            final Long count = this.countCache.get(query);
+            if (count != null)
+            {
+                return count;
+            }
+        }
+
+        final SolrQuery solrQuery = new SolrQuery(query);
+        solrQuery.setRows(0);
+
+        final long count = this.query(solrQuery).getTotalCount();
+        if (cacheable)
+        {
+            this.countCache.put(query, generation, count);
+        }
+
+        return count;
     }
 
     /**
@@ -235,25 +380,38 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
     @Override
     public void delete(final String id)
     {
+        assertRunning();
+        this.invalidateCaches();
+
         try
         {
-            if (allowStreaming)
+            final SolrUpdateBuffer buffer = this.getUpdateBuffer();
+            if (buffer != null)
             {
-                indexServer.deleteById(id);
+                buffer.deleteById(id);
             }
-            else
+            else if (allowStreaming)
             {
-                searchServer.deleteById(id);
+                indexServer.deleteById(id, this.getCommitWithin());
             }
-            if (isAutoCommit())
+            else
             {
-                commit();
+                searchServer.deleteById(id, this.getCommitWithin());
             }
+            commitIfNotBatching();
+        }
+        catch (DataAccessException e)
+        {
+            throw e;
         }
         catch (Exception e)
         {
             throw potentiallyConvertCheckedException(new RuntimeException(e.getCause()));
         }
+        finally
+        {
+            this.fireEntriesChanged(Collections.singletonList(id));
+        }
     }
 
     /**
@@ -262,25 +420,57 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
     @Override
     public void delete(final Collection<String> ids)
     {
+        this.delete(ids, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(final Collection<String> ids, final boolean commit)
+    {
+        assertRunning();
+        this.invalidateCaches();
+
         try
         {
-            if (allowStreaming)
+            final SolrUpdateBuffer buffer = this.getUpdateBuffer();
+            if (buffer != null)
+            {
+                for (String id : ids)
+                {
+                    buffer.deleteById(id);
+                }
+            }
+            else if (allowStreaming)
             {
-                indexServer.deleteById(new ArrayList<String>(ids));
+                indexServer.deleteById(new ArrayList<String>(ids), this.getCommitWithin());
             }
             else
             {
-                searchServer.deleteById(new ArrayList<String>(ids));
+                searchServer.deleteById(new ArrayList<String>(ids), this.getCommitWithin());
             }
-            if (isAutoCommit())
+            if (commit)
             {
-                commit();
+                commitIfNotBatching();
             }
+            else
+            {
+                this.uncommittedChanges.incrementAndGet();
+            }
+        }
+        catch (DataAccessException e)
+        {
+            throw e;
         }
         catch (Exception e)
         {
             throw potentiallyConvertCheckedException(new RuntimeException(e.getCause()));
         }
+        finally
+        {
+            this.fireEntriesChanged(ids);
+        }
     }
 
     /**
@@ -298,25 +488,181 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
     @Override
     public void deleteByQuery(final String query)
     {
+        assertRunning();
+        this.invalidateCaches();
+
         try
         {
-            if (allowStreaming)
+            final SolrUpdateBuffer buffer = this.getUpdateBuffer();
+            if (buffer != null)
+            {
+                buffer.deleteByQuery(query);
+            }
+            else if (allowStreaming)
             {
-                indexServer.deleteByQuery(query);
+                indexServer.deleteByQuery(query, this.getCommitWithin());
             }
             else
             {
-                searchServer.deleteByQuery(query);
+                searchServer.deleteByQuery(query, this.getCommitWithin());
+            }
+            commitIfNotBatching();
+        }
+        catch (DataAccessException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw potentiallyConvertCheckedException(new RuntimeException(e.getCause()));
+        }
+        finally
+        {
+            this.fireIndexChanged();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean exists(final String id)
+    {
+        Assert.notNull(id, "Id must not be null");
+
+        final SolrQuery solrQuery = new SolrQuery(this.documentIdField + ":" + quote(id));
+        solrQuery.setRows(0);
+        solrQuery.setFields(this.documentIdField);
+
+        return this.query(solrQuery).getTotalCount() > 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Identifiers are looked up in batches, each batch with a single query
+     * matching any of its identifiers. The first batch is looked up on the
+     * calling thread and the others on the scan executor, at the same time.
+     * </p>
+     * 
+     * @see #setIdLookupBatchSize(int)
+     * @see #setScanExecutor(Executor)
+     */
+    @Override
+    public <T> List<T> findByIds(final Iterable<String> ids, final Class<T> clazz)
+    {
+        Assert.notNull(ids, "Ids must not be null");
+
+        final Set<String> uniqueIds = new LinkedHashSet<String>();
+        for (String id : ids)
+        {
+            Assert.notNull(id, "Id must not be null");
+
+            uniqueIds.add(id);
+        }
+
+        final List<String> idList = new ArrayList<String>(uniqueIds);
+        final String[] fields = this.getIndexedFieldNames(clazz);
+        final int batchSize = this.idLookupBatchSize;
+
+        final List<FutureTask<QueryResponse>> batches = new ArrayList<FutureTask<QueryResponse>>();
+        for (int from = batchSize; from < idList.size(); from += batchSize)
+        {
+            final List<String> batch = idList.subList(from, Math.min(from + batchSize, idList.size()));
+            final FutureTask<QueryResponse> task = new FutureTask<QueryResponse>(new Callable<QueryResponse>()
+            {
+                @Override
+                public QueryResponse call()
+                {
+                    return SolrTemplate.this.queryByIds(batch, fields);
+                }
+            });
+            this.scanExecutor.execute(task);
+
+            batches.add(task);
+        }
+
+        final Map<String, IndexEntry> entries = new HashMap<String, IndexEntry>();
+        if (!idList.isEmpty())
+        {
+            this.putById(this.queryByIds(idList.subList(0, Math.min(batchSize, idList.size())), fields), entries);
+        }
+        for (FutureTask<QueryResponse> batch : batches)
+        {
+            this.putById(await(batch), entries);
+        }
+
+        final IndexEntryMapper<T> mapper = this.createIndexEntryMapper(clazz);
+        final List<T> results = new ArrayList<T>(entries.size());
+        for (String id : idList)
+        {
+            final IndexEntry entry = entries.get(id);
+            if (entry != null)
+            {
+                results.add(mapper.map(entry));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T findById(final String id, final Class<T> clazz)
+    {
+        Assert.notNull(id, "Id must not be null");
+
+        final SolrQuery solrQuery = new SolrQuery(this.documentIdField + ":" + quote(id));
+        solrQuery.setRows(1);
+
+        final String[] fields = this.getIndexedFieldNames(clazz);
+        if (fields.length != 0)
+        {
+            solrQuery.setFields(fields);
+        }
+
+        final Collection<? extends IndexEntry> entries = this.query(solrQuery).getMatchingEntries();
+
+        return entries.isEmpty() ? null : this.createIndexEntryMapper(clazz).map(entries.iterator().next());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flush()
+    {
+        final SolrUpdateBuffer buffer = this.updateBuffer;
+        try
+        {
+            if (buffer != null)
+            {
+                buffer.flush();
             }
-            if (isAutoCommit())
+            if (allowStreaming && indexServer != null)
             {
-                commit();
+                indexServer.blockUntilFinished();
             }
         }
         catch (Exception e)
         {
             throw potentiallyConvertCheckedException(new RuntimeException(e.getCause()));
         }
+        finally
+        {
+            this.invalidateCaches();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> Collection<String> index(final Collection<T> beans, final boolean commit)
+    {
+        return this.indexChunks(beans, commit);
     }
 
     /**
@@ -342,8 +688,116 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
      */
     @Override
     public QueryResponse query(final String query) throws DataAccessException
+    {
+        return this.query(new SolrQuery(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public QueryResponse query(final String query, final Pageable pageable) throws DataAccessException
+    {
+        return this.query(query, pageable, new String[0]);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The score of each entry is returned along with the requested fields.
+     * </p>
+     */
+    @Override
+    public QueryResponse query(final String query, final Pageable pageable, final String... fields) throws DataAccessException
     {
         final SolrQuery solrQuery = new SolrQuery(query);
+
+        if (fields != null && fields.length != 0)
+        {
+            solrQuery.setFields(fields);
+            solrQuery.addField(SCORE_FIELD);
+        }
+
+        if (pageable != null)
+        {
+            solrQuery.setStart(pageable.getOffset());
+            solrQuery.setRows(pageable.getPageSize());
+
+            if (pageable.getSort() != null)
+            {
+                for (Sort.Order order : pageable.getSort())
+                {
+                    solrQuery.addSortField(order.getProperty(), order.isAscending() ? SolrQuery.ORDER.asc : SolrQuery.ORDER.desc);
+                }
+            }
+        }
+
+        return this.query(solrQuery);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Responses are looked up in the query result cache first, if there is
+     * one, keyed by all the parameters of the query. Responses are not cached
+     * while updates are batched or committed within a time limit, as such
+     * updates become visible without passing through the template. If
+     * concurrent queries are coalesced, a query identical to one already in
+     * progress shares its response instead of being sent again.
+     * </p>
+     * 
+     * @see #setQueryResultCache(QueryResultCache)
+     * @see #setCoalesceQueries(boolean)
+     */
+    @Override
+    public QueryResponse query(final SolrQuery solrQuery) throws DataAccessException
+    {
+        final QueryResultCache cache = this.getQueryResultCache();
+        final boolean cacheable = cache != null && this.isVisibleOnCommit();
+        if (!cacheable && !this.coalesceQueries)
+        {
+            return this.execute(solrQuery);
+        }
+
+        final long generation = this.getWriteGeneration();
+        final String key = generation + ":" + solrQuery;
+
+        QueryResponse response = cacheable ? cache.get(key) : null;
+        if (response == null)
+        {
+            if (this.coalesceQueries)
+            {
+                response = this.queryCoalescer.query(key, new Callable<QueryResponse>()
+                {
+                    @Override
+                    public QueryResponse call()
+                    {
+                        return SolrTemplate.this.execute(solrQuery);
+                    }
+                });
+            }
+            else
+            {
+                response = this.execute(solrQuery);
+            }
+
+            if (cacheable && generation == this.getWriteGeneration())
+            {
+                cache.put(key, response);
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Sends a query to the Solr server.
+     * 
+     * @param solrQuery The {@link SolrQuery} to be performed.
+     * @return A {@link QueryResponse} holding the matching entries.
+     */
+    private QueryResponse execute(final SolrQuery solrQuery)
+    {
         org.apache.solr.client.solrj.response.QueryResponse solrQueryResponse = null;
 
         try
@@ -372,11 +826,32 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
                 documents.add(document);
             }
             queryResponse.setMatchingEntries(documents);
+            queryResponse.setTotalCount(results.getNumFound());
         }
 
         return queryResponse;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Batches are requested for identifiers greater than the last identifier
+     * in the previous batch, and the next batch is fetched on the scan
+     * executor while the current one is being consumed.
+     * </p>
+     * 
+     * @see #setScanExecutor(Executor)
+     */
+    @Override
+    public <T> Iterator<T> scan(final String query, final int batchSize, final Class<T> clazz)
+    {
+        Assert.notNull(query, "Query must not be null");
+        Assert.isTrue(batchSize > 0, "Batch size must be positive");
+
+        return new SolrScanIterator<T>(this, query, batchSize, this.documentIdField, this.getIndexedFieldNames(clazz), this.createIndexEntryMapper(clazz),
+                this.scanExecutor);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -410,9 +885,296 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
         return autoCommit;
     }
 
-    public void setAutoCommit(boolean autoCommit)
-    {
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Updates become visible without passing through this template while
+     * they are batched or committed within a time limit, so counts and query
+     * responses are not cached either in that case.
+     */
+    @Override
+    public boolean isVisibleOnCommit()
+    {
+        return this.updateBatchSize <= 0 && this.commitPolicy != CommitPolicy.COMMIT_WITHIN;
+    }
+
+    public void setAutoCommit(boolean autoCommit)
+    {
         this.autoCommit = autoCommit;
+
+        this.configureUpdateBuffer();
+    }
+
+    /**
+     * Sets whether the number of documents matching a query should be cached
+     * until the next addition, deletion, commit or flush through this
+     * template. Counts are never cached while updates are batched or committed
+     * within a time limit, as such updates become visible without passing
+     * through the template. Writes made by other clients are not seen until
+     * the next write through this template. Defaults to <code>false</code>.
+     * 
+     * @param cacheCounts Whether counts should be cached.
+     * @see #count(String)
+     */
+    public void setCacheCounts(final boolean cacheCounts)
+    {
+        this.cacheCounts = cacheCounts;
+    }
+
+    /**
+     * Sets whether identical queries performed concurrently should share a
+     * single request to the Solr server and its response. Queries are only
+     * shared if no update has been made through this template since the first
+     * of them started. Shared responses must not be modified. Defaults to
+     * <code>false</code>.
+     * 
+     * @param coalesceQueries Whether concurrent identical queries should be
+     *            coalesced.
+     * @see #getCollapsedQueryCount()
+     */
+    public void setCoalesceQueries(final boolean coalesceQueries)
+    {
+        this.coalesceQueries = coalesceQueries;
+    }
+
+    /**
+     * Sets how additions and deletions are committed when automatic commits
+     * are enabled. Defaults to {@link CommitPolicy#HARD}. Explicit calls to
+     * {@link #commit()} always perform a hard commit.
+     * 
+     * @param commitPolicy A {@link CommitPolicy}.
+     */
+    public void setCommitPolicy(final CommitPolicy commitPolicy)
+    {
+        this.commitPolicy = commitPolicy;
+        this.configureUpdateBuffer();
+    }
+
+    /**
+     * Sets the time within which the Solr server should commit an update when
+     * using {@link CommitPolicy#COMMIT_WITHIN}. Defaults to one second.
+     * 
+     * @param commitWithin The time, in milliseconds.
+     */
+    public void setCommitWithin(final int commitWithin)
+    {
+        this.commitWithin = commitWithin;
+        this.configureUpdateBuffer();
+    }
+
+    /**
+     * Stops accepting additions and deletions, sends any batched or streamed
+     * updates to the Solr server and issues a final commit. Streamed updates
+     * that cannot be sent before the shutdown timeout expires are dropped.
+     * Further attempts to add or delete search index entries fail with an
+     * {@link InvalidOperationException} until the template is started again.
+     * 
+     * @return A {@link DrainResult} reporting how many pending updates were
+     *         flushed or dropped.
+     * @see #setShutdownTimeout(long)
+     */
+    public synchronized DrainResult close()
+    {
+        if (!this.running)
+        {
+            return new DrainResult(0, 0);
+        }
+
+        this.running = false;
+
+        final long deadline = System.currentTimeMillis() + this.shutdownTimeout;
+        final SolrUpdateBuffer buffer = this.updateBuffer;
+        final AsyncUpdateSolrServer server = allowStreaming ? this.indexServer : null;
+        long pending = 0;
+        long dropped = 0;
+
+        if (server != null)
+        {
+            pending += server.getPendingUpdates();
+        }
+
+        if (buffer != null)
+        {
+            final int buffered = buffer.getPendingCount();
+            pending += buffered;
+
+            this.updateBuffer = null;
+            this.coalescedUpdates += buffer.getCoalescedCount();
+            buffer.setCommitOnFlush(false);
+            try
+            {
+                buffer.close();
+            }
+            catch (Exception e)
+            {
+                LOGGER.error("Unable to send batched updates to the Solr server.", e);
+                dropped += buffered;
+            }
+        }
+
+        if (server != null)
+        {
+            dropped += server.drain(this.shutdownTimeout <= 0 ? 0 : Math.max(1, deadline - System.currentTimeMillis()));
+        }
+
+        try
+        {
+            searchServer.commit();
+        }
+        catch (Exception e)
+        {
+            LOGGER.error("Unable to commit pending updates to the Solr server.", e);
+        }
+
+        final DrainResult result = new DrainResult(pending - dropped, dropped);
+        if (dropped == 0)
+        {
+            LOGGER.info("Solr template stopped, " + result);
+        }
+        else
+        {
+            LOGGER.warn("Solr template stopped with updates dropped, " + result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Closes the template when the application context is shut down, then
+     * stops the threads on which it performs background work.
+     * 
+     * @see #close()
+     */
+    @Override
+    public void destroy()
+    {
+        try
+        {
+            this.close();
+        }
+        finally
+        {
+            this.shutdownDefaultExecutor();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPhase()
+    {
+        return this.phase;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAutoStartup()
+    {
+        return true;
+    }
+
+    /**
+     * Checks whether the template accepts additions and deletions.
+     * 
+     * @return <code>true</code> unless the template has been closed.
+     */
+    @Override
+    public boolean isRunning()
+    {
+        return this.running;
+    }
+
+    /**
+     * Allows additions and deletions again after the template has been
+     * closed, restarting the streaming of updates if it is enabled.
+     */
+    @Override
+    public synchronized void start()
+    {
+        if (!this.running)
+        {
+            if (allowStreaming && this.indexServer != null)
+            {
+                this.indexServer = this.createIndexServer();
+            }
+
+            this.running = true;
+        }
+    }
+
+    /**
+     * Closes the template.
+     * 
+     * @see #close()
+     */
+    @Override
+    public void stop()
+    {
+        this.close();
+    }
+
+    /**
+     * Closes the template, then notifies a callback.
+     * 
+     * @param callback A {@link Runnable} to run once the template is closed.
+     * @see #close()
+     */
+    @Override
+    public void stop(final Runnable callback)
+    {
+        try
+        {
+            this.close();
+        }
+        finally
+        {
+            callback.run();
+        }
+    }
+
+    /**
+     * Gets the number of queries that shared the response of an identical
+     * query already in progress instead of being sent to the Solr server.
+     * 
+     * @return The number of collapsed queries.
+     * @see #setCoalesceQueries(boolean)
+     */
+    public long getCollapsedQueryCount()
+    {
+        return this.queryCoalescer.getCollapsedCount();
+    }
+
+    /**
+     * Gets the number of additions and deletions that were never sent because
+     * a later addition or deletion of the same document superseded them while
+     * they were waiting in a batch.
+     * 
+     * @return The number of superseded updates.
+     * @see #setUpdateBatchSize(int)
+     */
+    public synchronized long getCoalescedUpdateCount()
+    {
+        final SolrUpdateBuffer buffer = this.updateBuffer;
+
+        return this.coalescedUpdates + (buffer == null ? 0 : buffer.getCoalescedCount());
+    }
+
+    /**
+     * Gets a snapshot of the queue through which updates are streamed to the
+     * Solr server, for monitoring how far indexing has fallen behind.
+     * 
+     * @return An {@link UpdateQueueMetrics}, or <code>null</code> if updates
+     *         are not being streamed.
+     * @see #setAllowStreaming(boolean)
+     */
+    public UpdateQueueMetrics getStreamingMetrics()
+    {
+        final AsyncUpdateSolrServer server = this.indexServer;
+
+        return server == null ? null : server.getMetrics();
     }
 
     @Override
@@ -421,37 +1183,348 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
         return searchServer;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeIndexChangeListener(final IndexChangeListener listener)
+    {
+        this.changeListeners.remove(listener);
+    }
+
     @Override
     public void refresh()
     {
         try
         {
-            searchServer.optimize();
             if (allowStreaming)
             {
-                indexServer.commit();
+                indexServer.optimize();
+            }
+            else
+            {
+                searchServer.optimize();
             }
         }
         catch (Exception e)
         {
             throw potentiallyConvertCheckedException(new RuntimeException(e.getCause()));
         }
+        finally
+        {
+            this.invalidateCaches();
+            this.fireIndexChangedIfUncommitted();
+        }
     }
 
-    private UpdateResponse addDocument(org.apache.solr.common.SolrDocument solrDocument) throws SolrServerException, IOException
+    private UpdateResponse addDocument(SolrInputDocument solrInputDocument) throws SolrServerException, IOException
     {
-        UpdateResponse updateResponse;
-        if (allowStreaming)
+        UpdateResponse updateResponse = null;
+        final SolrUpdateBuffer buffer = this.getUpdateBuffer();
+        if (buffer != null)
+        {
+            buffer.add(solrInputDocument);
+        }
+        else if (allowStreaming)
         {
-            updateResponse = indexServer.add(ClientUtils.toSolrInputDocument(solrDocument));
+            updateResponse = indexServer.add(solrInputDocument, this.getCommitWithin());
         }
         else
         {
-            updateResponse = searchServer.add(ClientUtils.toSolrInputDocument(solrDocument));
+            updateResponse = searchServer.add(solrInputDocument, this.getCommitWithin());
         }
         return updateResponse;
     }
 
+    /**
+     * Sends multiple documents to the Solr server in a single request, unless
+     * updates are being batched.
+     */
+    private void addDocuments(final List<SolrInputDocument> solrInputDocuments) throws SolrServerException, IOException
+    {
+        final SolrUpdateBuffer buffer = this.getUpdateBuffer();
+        if (buffer != null)
+        {
+            for (SolrInputDocument solrInputDocument : solrInputDocuments)
+            {
+                buffer.add(solrInputDocument);
+            }
+        }
+        else if (allowStreaming)
+        {
+            indexServer.add(solrInputDocuments, this.getCommitWithin());
+        }
+        else
+        {
+            searchServer.add(solrInputDocuments, this.getCommitWithin());
+        }
+    }
+
+    /**
+     * Waits for a batch of results fetched in the background, fetching it on
+     * the calling thread if no executor thread has started fetching it yet.
+     */
+    private static QueryResponse await(final FutureTask<QueryResponse> task)
+    {
+        task.run();
+        try
+        {
+            return task.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while waiting for search results.", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException("Unable to fetch search results.", e.getCause());
+        }
+    }
+
+    /**
+     * Checks that the template has not been closed, before an addition or
+     * deletion.
+     */
+    private void assertRunning()
+    {
+        if (!this.running)
+        {
+            throw new InvalidOperationException("Search index entries cannot be added or deleted after the template has been closed.");
+        }
+    }
+
+    /**
+     * Tells the index change listeners that specific entries have changed.
+     */
+    private void fireEntriesChanged(final Collection<String> ids)
+    {
+        for (IndexChangeListener listener : this.changeListeners)
+        {
+            listener.entriesChanged(ids);
+        }
+    }
+
+    /**
+     * Tells the index change listeners that any entries may have changed.
+     */
+    private void fireIndexChanged()
+    {
+        for (IndexChangeListener listener : this.changeListeners)
+        {
+            listener.indexChanged();
+        }
+    }
+
+    /**
+     * Tells the index change listeners that any entries may have changed if
+     * changes have been sent without being committed since they were last
+     * told, once a commit has made those changes visible.
+     */
+    private void fireIndexChangedIfUncommitted()
+    {
+        final long changes = this.uncommittedChanges.get();
+        if (this.notifiedChanges.getAndSet(changes) != changes)
+        {
+            this.fireIndexChanged();
+        }
+    }
+
+    /**
+     * Creates the server through which updates are streamed to the Solr
+     * server.
+     * 
+     * @return An {@link AsyncUpdateSolrServer}.
+     */
+    private AsyncUpdateSolrServer createIndexServer()
+    {
+        return new AsyncUpdateSolrServer(this.searchServer, this.queueSize, this.threadCount, this.streamingBatchSize, this.overflowPolicy);
+    }
+
+    /**
+     * Quotes a value as a phrase in a Solr query, escaping any quotes and
+     * backslashes within it.
+     */
+    private static String quote(final String value)
+    {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    /**
+     * Puts the entries in a query response into a map by unique identifier.
+     */
+    private void putById(final QueryResponse response, final Map<String, IndexEntry> entries)
+    {
+        for (IndexEntry entry : response.getMatchingEntries())
+        {
+            entries.put(String.valueOf(entry.get(this.documentIdField)), entry);
+        }
+    }
+
+    /**
+     * Fetches the entries with any of a batch of unique identifiers.
+     */
+    private QueryResponse queryByIds(final List<String> ids, final String[] fields)
+    {
+        final StringBuilder query = new StringBuilder(this.documentIdField).append(":(");
+        for (int i = 0; i < ids.size(); ++i)
+        {
+            if (i > 0)
+            {
+                query.append(" OR ");
+            }
+            query.append(quote(ids.get(i)));
+        }
+        query.append(')');
+
+        final SolrQuery solrQuery = new SolrQuery(query.toString());
+        solrQuery.setRows(ids.size());
+        if (fields.length != 0)
+        {
+            solrQuery.setFields(fields);
+            solrQuery.addField(this.documentIdField);
+        }
+
+        return this.query(solrQuery);
+    }
+
+    /**
+     * Gets the Solr input document for a search index entry, copying the
+     * entry only if it is not already backed by one.
+     * 
+     * @param document An {@link IndexEntry}.
+     * @return A {@link SolrInputDocument}.
+     */
+    private static SolrInputDocument toSolrInputDocument(final IndexEntry document)
+    {
+        if (document instanceof SolrInputIndexEntry)
+        {
+            return ((SolrInputIndexEntry) document).getSolrInputDocument();
+        }
+
+        final SolrInputDocument solrInputDocument = new SolrInputDocument();
+        for (Map.Entry<String, Object> field : document.entrySet())
+        {
+            solrInputDocument.setField(field.getKey(), field.getValue());
+        }
+
+        return solrInputDocument;
+    }
+
+    /**
+     * Commits after an update if automatic commits are enabled and updates
+     * are sent immediately, according to the commit policy. Batched updates
+     * are committed as each batch is sent instead. Updates left uncommitted
+     * are counted, so that the index change listeners can be told once they
+     * have been committed.
+     */
+    private void commitIfNotBatching()
+    {
+        if (isAutoCommit() && this.getUpdateBuffer() == null)
+        {
+            switch (this.commitPolicy)
+            {
+            case COALESCED:
+                this.commitCoalescer.commit();
+                return;
+            case COMMIT_WITHIN:
+                break;
+            default:
+                commit();
+                return;
+            }
+        }
+
+        this.uncommittedChanges.incrementAndGet();
+    }
+
+    /**
+     * Applies the commit policy to the buffer through which updates are
+     * batched, if there is one.
+     */
+    private void configureUpdateBuffer()
+    {
+        final SolrUpdateBuffer buffer = this.updateBuffer;
+        if (buffer != null)
+        {
+            buffer.setCommitOnFlush(isAutoCommit() && this.commitPolicy != CommitPolicy.COMMIT_WITHIN);
+            buffer.setCommitWithin(this.getCommitWithin());
+        }
+    }
+
+    /**
+     * Gets the time within which the Solr server should commit an update.
+     * 
+     * @return The time, in milliseconds, or <code>-1</code> if updates are
+     *         committed by the client.
+     */
+    private int getCommitWithin()
+    {
+        return isAutoCommit() && this.commitPolicy == CommitPolicy.COMMIT_WITHIN ? this.commitWithin : -1;
+    }
+
+    /**
+     * Discards cached counts and moves on the write generation, so that
+     * cached query responses are no longer returned.
+     */
+    private void invalidateCaches()
+    {
+        this.countCache.invalidate();
+        this.incrementWriteGeneration();
+    }
+
+    /**
+     * Gets the buffer through which updates are batched, creating it on first
+     * use. No buffer is created once the template has been closed, as its
+     * updates would never be sent.
+     * 
+     * @return A {@link SolrUpdateBuffer}, or <code>null</code> if updates are
+     *         sent immediately.
+     */
+    private SolrUpdateBuffer getUpdateBuffer()
+    {
+        if (this.updateBatchSize <= 0)
+        {
+            return null;
+        }
+
+        SolrUpdateBuffer buffer = this.updateBuffer;
+        if (buffer == null)
+        {
+            synchronized (this)
+            {
+                buffer = this.updateBuffer;
+                if (buffer == null)
+                {
+                    if (!this.running)
+                    {
+                        throw new InvalidOperationException("Search index entries cannot be added or deleted after the template has been closed.");
+                    }
+
+                    buffer = new SolrUpdateBuffer(allowStreaming ? indexServer : searchServer, this.documentIdField, this.updateBatchSize, this.updateBatchLatency);
+                    buffer.setSendListener(new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            SolrTemplate.this.fireIndexChanged();
+                        }
+                    });
+                    this.updateBuffer = buffer;
+                    this.configureUpdateBuffer();
+                }
+            }
+        }
+
+        return buffer;
+    }
+
     public void setSearchServer(SolrServer searchServer)
     {
         this.searchServer = searchServer;
@@ -462,16 +1535,124 @@ public class SolrTemplate extends SearchTemplate implements SolrOperations
         this.allowStreaming = allowStreaming;
     }
 
+    /**
+     * Sets the number of identifiers looked up with each query when finding
+     * entries by their unique identifiers. Defaults to 100, well below the
+     * default limit of 1024 clauses in a Solr boolean query.
+     * 
+     * @param idLookupBatchSize The number of identifiers per query. Must be
+     *            positive.
+     * @see #findByIds(Iterable, Class)
+     */
+    public void setIdLookupBatchSize(final int idLookupBatchSize)
+    {
+        Assert.isTrue(idLookupBatchSize > 0, "Id lookup batch size must be positive");
+
+        this.idLookupBatchSize = idLookupBatchSize;
+    }
+
+    /**
+     * Sets what happens to updates made while the queue of streamed updates
+     * is full. Defaults to {@link OverflowPolicy#BLOCK}.
+     * 
+     * @param overflowPolicy An {@link OverflowPolicy}.
+     * @see #setQueueSize(int)
+     */
+    public void setOverflowPolicy(final OverflowPolicy overflowPolicy)
+    {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Sets the phase in which the template is started and stopped along with
+     * other lifecycle components. Defaults to zero.
+     * 
+     * @param phase The lifecycle phase.
+     */
+    public void setPhase(final int phase)
+    {
+        this.phase = phase;
+    }
+
     public void setQueueSize(int queueSize)
     {
         this.queueSize = queueSize;
     }
 
+    /**
+     * Sets the executor on which batches of results are fetched while scanning
+     * over the results of a query or finding entries by their unique
+     * identifiers. Defaults to a pool of one daemon thread per processor,
+     * which queues further batches rather than block; a batch that has not
+     * started when its results are needed is fetched on the calling thread.
+     * 
+     * @param scanExecutor An {@link Executor}.
+     * @see #scan(String, int, Class)
+     * @see #findByIds(Iterable, Class)
+     */
+    public void setScanExecutor(final Executor scanExecutor)
+    {
+        this.scanExecutor = scanExecutor;
+    }
+
+    /**
+     * Sets the maximum time for which {@link #close()} waits for streamed
+     * updates to be sent. Defaults to thirty seconds. If zero or negative,
+     * waits for as long as it takes.
+     * 
+     * @param shutdownTimeout The timeout, in milliseconds.
+     */
+    public void setShutdownTimeout(final long shutdownTimeout)
+    {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Sets the maximum number of queued updates that are sent together when
+     * streaming. Defaults to 100.
+     * 
+     * @param streamingBatchSize The maximum number of updates per batch.
+     * @see #setAllowStreaming(boolean)
+     */
+    public void setStreamingBatchSize(final int streamingBatchSize)
+    {
+        this.streamingBatchSize = streamingBatchSize;
+    }
+
     public void setThreadCount(int threadCount)
     {
         this.threadCount = threadCount;
     }
 
+    /**
+     * Sets the maximum time for which an addition or deletion may be held back
+     * while a batch is collected. Defaults to one second. If zero or negative,
+     * batches are only sent when they are full or are flushed explicitly.
+     * 
+     * @param updateBatchLatency The maximum latency, in milliseconds.
+     * @see #setUpdateBatchSize(int)
+     */
+    public void setUpdateBatchLatency(final int updateBatchLatency)
+    {
+        this.updateBatchLatency = updateBatchLatency;
+    }
+
+    /**
+     * Sets the number of additions and deletions to collect before sending
+     * them to the Solr server in bulk. Batched updates are committed as each
+     * batch is sent if automatic commits are enabled, rather than after every
+     * call. Only the last addition or deletion of each document in a batch is
+     * sent. Defaults to zero, which sends every update immediately.
+     * 
+     * @param updateBatchSize The number of updates per batch.
+     * @see #flush()
+     * @see #close()
+     */
+    public void setUpdateBatchSize(final int updateBatchSize)
+    {
+        this.updateBatchSize = updateBatchSize;
+    }
+
     public void setDocumentIdField(String documentIdField)
     {
         this.documentIdField = documentIdField;
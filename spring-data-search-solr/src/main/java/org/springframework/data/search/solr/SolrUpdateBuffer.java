@@ -0,0 +1,386 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.AbstractUpdateRequest;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects document additions and deletions and sends them to a Solr server in
+ * batches. A batch is sent as soon as it reaches a configured size, or once
+ * the oldest pending update has waited for a configured time, whichever comes
+ * first. Updates are sent in the order in which they were received; runs of
+ * consecutive additions or deletions are each sent as a single request. An
+ * addition or deletion of a document supersedes any addition or deletion of
+ * the same document still waiting to be sent, which is then discarded, so
+ * that only the last state of each document is sent. This class is
+ * thread-safe.
+ *
+ * @author Manish Baxi
+ */
+final class SolrUpdateBuffer
+{
+    private static final Logger            LOGGER         = LoggerFactory.getLogger(SolrUpdateBuffer.class);
+
+    private final int                      batchSize;
+    private boolean                        closed;
+    private long                           coalescedCount;
+    private volatile boolean               commitOnFlush;
+    private volatile int                   commitWithin   = -1;
+    private final Object                   flushLock      = new Object();
+    private final Runnable                 flushTask;
+    private final String                   idField;
+    private int                            liveCount;
+    private final long                     maxLatency;
+    private List<Object>                   pending        = new ArrayList<Object>();
+    private Map<String, Integer>           positions      = new HashMap<String, Integer>();
+    private ScheduledFuture<?>             scheduledFlush;
+    private final ScheduledExecutorService scheduler;
+    private volatile Runnable              sendListener;
+    private final SolrServer               server;
+
+    /**
+     * Sets the server to send updates to and the limits for sending them.
+     *
+     * @param server The {@link SolrServer} to send updates to.
+     * @param idField The name of the unique document identifier field.
+     * @param batchSize The number of pending updates that causes them to be
+     *            sent.
+     * @param maxLatency The maximum time, in milliseconds, for which an update
+     *            may remain pending. If zero or negative, updates are only
+     *            sent when a batch is full or the buffer is flushed.
+     */
+    SolrUpdateBuffer(final SolrServer server, final String idField, final int batchSize, final long maxLatency)
+    {
+        this.batchSize = batchSize;
+        this.idField = idField;
+        this.maxLatency = maxLatency;
+        this.server = server;
+
+        this.flushTask = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                SolrUpdateBuffer.this.flushQuietly();
+            }
+        };
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, "solr-update-buffer");
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Queues a document for addition.
+     *
+     * @param document The {@link SolrInputDocument} to add.
+     */
+    void add(final SolrInputDocument document) throws SolrServerException, IOException
+    {
+        final Object id = document.getFieldValue(this.idField);
+
+        this.enqueue(document, id == null ? null : String.valueOf(id));
+    }
+
+    /**
+     * Sends all pending updates and stops the timer that sends them after the
+     * maximum latency. Updates cannot be queued once the buffer is closed.
+     */
+    void close() throws SolrServerException, IOException
+    {
+        synchronized (this)
+        {
+            this.closed = true;
+        }
+
+        try
+        {
+            this.flush();
+        }
+        finally
+        {
+            this.scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Queues a document for deletion by its unique identifier.
+     *
+     * @param id The unique identifier of the document to delete.
+     */
+    void deleteById(final String id) throws SolrServerException, IOException
+    {
+        this.enqueue(new Delete(id, false), id);
+    }
+
+    /**
+     * Queues documents matching a query for deletion.
+     *
+     * @param query The query for the documents to delete.
+     */
+    void deleteByQuery(final String query) throws SolrServerException, IOException
+    {
+        this.enqueue(new Delete(query, true), null);
+    }
+
+    /**
+     * Sends all pending updates.
+     */
+    void flush() throws SolrServerException, IOException
+    {
+        synchronized (this.flushLock)
+        {
+            final List<Object> batch;
+            synchronized (this)
+            {
+                batch = this.pending;
+
+                this.liveCount = 0;
+                this.pending = new ArrayList<Object>();
+                this.positions = new HashMap<String, Integer>();
+                if (this.scheduledFlush != null)
+                {
+                    this.scheduledFlush.cancel(false);
+                    this.scheduledFlush = null;
+                }
+            }
+
+            if (batch.isEmpty())
+            {
+                return;
+            }
+
+            try
+            {
+                this.send(batch);
+            }
+            finally
+            {
+                final Runnable listener = this.sendListener;
+                if (listener != null)
+                {
+                    listener.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of updates that were discarded because a later update
+     * to the same document superseded them before they were sent.
+     *
+     * @return The number of superseded updates.
+     */
+    synchronized long getCoalescedCount()
+    {
+        return this.coalescedCount;
+    }
+
+    /**
+     * Gets the number of updates waiting to be sent.
+     *
+     * @return The number of updates waiting to be sent.
+     */
+    synchronized int getPendingCount()
+    {
+        return this.liveCount;
+    }
+
+    /**
+     * Sets whether each batch should be committed as it is sent.
+     *
+     * @param commitOnFlush Whether each batch should be committed as it is
+     *            sent.
+     */
+    void setCommitOnFlush(final boolean commitOnFlush)
+    {
+        this.commitOnFlush = commitOnFlush;
+    }
+
+    /**
+     * Sets the time within which the Solr server should commit each batch.
+     *
+     * @param commitWithin The time, in milliseconds, or a negative value if
+     *            the server should not be asked to commit batches.
+     */
+    void setCommitWithin(final int commitWithin)
+    {
+        this.commitWithin = commitWithin;
+    }
+
+    /**
+     * Sets a callback to run once a batch of updates has been sent, whether
+     * on flushing or on expiry of the maximum latency, and whether or not
+     * sending succeeded.
+     *
+     * @param sendListener The callback, or <code>null</code> for none.
+     */
+    void setSendListener(final Runnable sendListener)
+    {
+        this.sendListener = sendListener;
+    }
+
+    /**
+     * Queues an update, discarding any pending update to the same document
+     * and sending pending updates if the batch is full.
+     */
+    private void enqueue(final Object update, final String id) throws SolrServerException, IOException
+    {
+        final boolean full;
+        synchronized (this)
+        {
+            if (this.closed)
+            {
+                throw new IllegalStateException("Updates cannot be queued after the buffer has been closed.");
+            }
+
+            if (id != null)
+            {
+                final Integer previous = this.positions.put(id, this.pending.size());
+                if (previous != null)
+                {
+                    this.pending.set(previous, null);
+                    --this.liveCount;
+                    ++this.coalescedCount;
+                }
+            }
+
+            this.pending.add(update);
+            ++this.liveCount;
+
+            full = this.liveCount >= this.batchSize;
+            if (!full && this.scheduledFlush == null && this.maxLatency > 0)
+            {
+                this.scheduledFlush = this.scheduler.schedule(this.flushTask, this.maxLatency, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (full)
+        {
+            this.flush();
+        }
+    }
+
+    /**
+     * Sends pending updates on expiry of the maximum latency, logging any
+     * failures as there is no caller to report them to.
+     */
+    private void flushQuietly()
+    {
+        try
+        {
+            this.flush();
+        }
+        catch (Exception e)
+        {
+            LOGGER.error("Unable to send pending updates to the Solr server.", e);
+        }
+    }
+
+    /**
+     * Sends a batch of updates, one request per run of consecutive additions
+     * or deletions.
+     */
+    private void send(final List<Object> batch) throws SolrServerException, IOException
+    {
+        UpdateRequest request = null;
+        boolean adding = false;
+
+        for (Object update : batch)
+        {
+            if (update == null)
+            {
+                continue;
+            }
+
+            final boolean add = update instanceof SolrInputDocument;
+            if (request == null || add != adding)
+            {
+                if (request != null)
+                {
+                    request.process(this.server);
+                }
+
+                request = new UpdateRequest();
+                request.setCommitWithin(this.commitWithin);
+                adding = add;
+            }
+
+            if (add)
+            {
+                request.add((SolrInputDocument) update);
+            }
+            else if (((Delete) update).byQuery)
+            {
+                request.deleteByQuery(((Delete) update).value);
+            }
+            else
+            {
+                request.deleteById(((Delete) update).value);
+            }
+        }
+
+        if (request != null)
+        {
+            if (this.commitOnFlush)
+            {
+                request.setAction(AbstractUpdateRequest.ACTION.COMMIT, true, true);
+            }
+
+            request.process(this.server);
+        }
+    }
+
+    /**
+     * A pending deletion.
+     */
+    private static final class Delete
+    {
+        private final boolean byQuery;
+        private final String  value;
+
+        private Delete(final String value, final boolean byQuery)
+        {
+            this.byQuery = byQuery;
+            this.value = value;
+        }
+    }
+}
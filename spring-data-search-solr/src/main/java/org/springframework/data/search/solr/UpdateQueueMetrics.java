@@ -0,0 +1,160 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+/**
+ * A snapshot of the state of the queue through which updates are streamed to
+ * a Solr server. Counts are totals since the queue was created.
+ *
+ * @author Manish Baxi
+ * @see SolrTemplate#getStreamingMetrics()
+ */
+public final class UpdateQueueMetrics
+{
+    private final long   callerRunRequests;
+    private final double drainRate;
+    private final long   failedRequests;
+    private final int    inFlightBatches;
+    private final int    queueCapacity;
+    private final int    queueDepth;
+    private final long   rejectedRequests;
+    private final long   sentRequests;
+
+    /**
+     * Sets the values captured by the snapshot.
+     *
+     * @param queueDepth The number of update requests waiting on the queue.
+     * @param queueCapacity The maximum number of update requests that may
+     *            wait on the queue.
+     * @param inFlightBatches The number of batches being sent.
+     * @param sentRequests The number of queued update requests sent.
+     * @param failedRequests The number of queued update requests that could
+     *            not be sent.
+     * @param rejectedRequests The number of update requests rejected because
+     *            the queue was full.
+     * @param callerRunRequests The number of update requests sent by the
+     *            caller because the queue was full.
+     * @param drainRate The number of queued update requests sent per second,
+     *            measured over the last second or so.
+     */
+    UpdateQueueMetrics(final int queueDepth, final int queueCapacity, final int inFlightBatches, final long sentRequests, final long failedRequests,
+            final long rejectedRequests, final long callerRunRequests, final double drainRate)
+    {
+        this.callerRunRequests = callerRunRequests;
+        this.drainRate = drainRate;
+        this.failedRequests = failedRequests;
+        this.inFlightBatches = inFlightBatches;
+        this.queueCapacity = queueCapacity;
+        this.queueDepth = queueDepth;
+        this.rejectedRequests = rejectedRequests;
+        this.sentRequests = sentRequests;
+    }
+
+    /**
+     * Gets the number of update requests sent by the caller because the queue
+     * was full.
+     *
+     * @return The number of update requests run by callers.
+     * @see OverflowPolicy#CALLER_RUNS
+     */
+    public long getCallerRunRequests()
+    {
+        return this.callerRunRequests;
+    }
+
+    /**
+     * Gets the number of queued update requests sent per second, measured
+     * over the last second or so.
+     *
+     * @return The drain rate, in requests per second.
+     */
+    public double getDrainRate()
+    {
+        return this.drainRate;
+    }
+
+    /**
+     * Gets the number of queued update requests that could not be sent.
+     *
+     * @return The number of failed update requests.
+     */
+    public long getFailedRequests()
+    {
+        return this.failedRequests;
+    }
+
+    /**
+     * Gets the number of batches of update requests being sent.
+     *
+     * @return The number of batches in flight.
+     */
+    public int getInFlightBatches()
+    {
+        return this.inFlightBatches;
+    }
+
+    /**
+     * Gets the maximum number of update requests that may wait on the queue.
+     *
+     * @return The capacity of the queue.
+     */
+    public int getQueueCapacity()
+    {
+        return this.queueCapacity;
+    }
+
+    /**
+     * Gets the number of update requests waiting on the queue.
+     *
+     * @return The depth of the queue.
+     */
+    public int getQueueDepth()
+    {
+        return this.queueDepth;
+    }
+
+    /**
+     * Gets the number of update requests rejected because the queue was full.
+     *
+     * @return The number of rejected update requests.
+     * @see OverflowPolicy#FAIL_FAST
+     */
+    public long getRejectedRequests()
+    {
+        return this.rejectedRequests;
+    }
+
+    /**
+     * Gets the number of queued update requests sent.
+     *
+     * @return The number of sent update requests.
+     */
+    public long getSentRequests()
+    {
+        return this.sentRequests;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("queueDepth=%d/%d, inFlightBatches=%d, sent=%d, failed=%d, rejected=%d, callerRuns=%d, drainRate=%.1f/s", this.queueDepth,
+                this.queueCapacity, this.inFlightBatches, this.sentRequests, this.failedRequests, this.rejectedRequests, this.callerRunRequests, this.drainRate);
+    }
+}
@@ -71,6 +71,9 @@ public class SolrRepositoryConfigurationExtension extends RepositoryConfiguratio
         Element element = config.getElement();
 
         ParsingUtils.setPropertyReference(builder, element, "solr-template-ref", "solrOperations");
+        ParsingUtils.setPropertyValue(builder, element, "chunk-size", "chunkSize");
+        ParsingUtils.setPropertyValue(builder, element, "entity-cache-size", "entityCacheSize");
+        ParsingUtils.setPropertyValue(builder, element, "entity-cache-time-to-live", "entityCacheTimeToLive");
     }
 
     /*
@@ -17,8 +17,11 @@
 package org.springframework.data.search.solr.repository;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.core.EntityInformation;
 import org.springframework.data.search.Indexable;
 import org.springframework.data.search.solr.SolrOperations;
@@ -31,6 +34,8 @@ import org.springframework.util.Assert;
  */
 public class SimpleSolrRepository<T extends Indexable> implements SolrRepository<T>
 {
+    private int                                chunkSize = 1000;
+    private SolrEntityCache<T>                 entityCache;
     private final EntityInformation<T, String> entityInformation;
     private final SolrOperations               operations;
 
@@ -64,7 +69,16 @@ public class SimpleSolrRepository<T extends Indexable> implements SolrRepository
     @Override
     public long count()
     {
-        return 0;
+        return this.count("*:*");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long count(final String query)
+    {
+        return this.operations.count(query);
     }
 
     /**
@@ -91,9 +105,21 @@ public class SimpleSolrRepository<T extends Indexable> implements SolrRepository
     @Override
     public void delete(final Iterable<? extends T> entities)
     {
-        for (T entity : entities)
+        Assert.notNull(entities, "Iterable of entities must not be null!");
+
+        final Iterator<? extends T> iterator = entities.iterator();
+        final List<String> ids = new ArrayList<String>(this.chunkSize);
+
+        while (iterator.hasNext())
         {
-            this.delete(entity);
+            ids.add(iterator.next().getId());
+
+            if (ids.size() == this.chunkSize || !iterator.hasNext())
+            {
+                this.operations.delete(ids, !iterator.hasNext());
+
+                ids.clear();
+            }
         }
     }
 
@@ -112,7 +138,13 @@ public class SimpleSolrRepository<T extends Indexable> implements SolrRepository
     @Override
     public boolean exists(final String id)
     {
-        return this.findOne(id) != null;
+        final SolrEntityCache<T> cache = this.entityCache;
+        if (cache != null && cache.contains(id))
+        {
+            return true;
+        }
+
+        return this.operations.exists(id);
     }
 
     /**
@@ -133,13 +165,31 @@ public class SimpleSolrRepository<T extends Indexable> implements SolrRepository
         return this.operations.query(query, this.entityInformation.getJavaType());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Page<T> findAll(final Pageable pageable)
+    {
+        return this.findAll("*:*", pageable);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Page<T> findAll(final String query, final Pageable pageable)
+    {
+        return this.operations.query(query, pageable, this.entityInformation.getJavaType());
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Iterable<T> findAll(final Iterable<String> ids)
     {
-        return null;
+        return this.operations.findByIds(ids, this.entityInformation.getJavaType());
     }
 
     /**
@@ -148,7 +198,25 @@ public class SimpleSolrRepository<T extends Indexable> implements SolrRepository
     @Override
     public T findOne(final String id)
     {
-        return this.operations.query(String.format("id:%s", id), this.entityInformation.getJavaType()).iterator().next();
+        final SolrEntityCache<T> cache = this.entityCache;
+        if (cache == null)
+        {
+            return this.operations.findById(id, this.entityInformation.getJavaType());
+        }
+
+        T entity = cache.get(id);
+        if (entity == null)
+        {
+            final long generation = cache.getGeneration();
+
+            entity = this.operations.findById(id, this.entityInformation.getJavaType());
+            if (entity != null && this.operations.isVisibleOnCommit())
+            {
+                cache.put(entity, generation);
+            }
+        }
+
+        return entity;
     }
 
     /**
@@ -172,13 +240,66 @@ public class SimpleSolrRepository<T extends Indexable> implements SolrRepository
     {
         Assert.notNull(entities, "Iterable of entities must not be null!");
 
+        final Iterator<S> iterator = entities.iterator();
+        final List<S> chunk = new ArrayList<S>(this.chunkSize);
         final List<S> result = new ArrayList<S>();
 
-        for (S entity : entities)
+        while (iterator.hasNext())
         {
-            result.add(this.save(entity));
+            final S entity = iterator.next();
+            Assert.notNull(entity, "Entity must not be null!");
+
+            chunk.add(entity);
+
+            if (chunk.size() == this.chunkSize || !iterator.hasNext())
+            {
+                this.operations.index(chunk, !iterator.hasNext());
+
+                result.addAll(chunk);
+                chunk.clear();
+            }
         }
 
         return result;
     }
+
+    /**
+     * Sets the number of entities sent to the search server in each request
+     * when saving or deleting multiple entities. The entities are committed
+     * once, after the last chunk has been sent.
+     * 
+     * @param chunkSize The number of entities per request. Must be positive.
+     */
+    public void setChunkSize(final int chunkSize)
+    {
+        Assert.isTrue(chunkSize > 0, "Chunk size must be positive!");
+
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets a cache of entities to consult before looking up single entities by
+     * their unique identifiers. The cache is told about additions and
+     * deletions made through the {@link SolrOperations} instance of this
+     * repository, whether through the repository or not. Entities are not
+     * cached while changes become visible without being committed through the
+     * {@link SolrOperations} instance, as the cache could not be told when
+     * they do. If <code>null</code>, which is the default, entities are always
+     * looked up in the search index.
+     * 
+     * @param entityCache A {@link SolrEntityCache}.
+     */
+    public void setEntityCache(final SolrEntityCache<T> entityCache)
+    {
+        if (this.entityCache != null)
+        {
+            this.operations.removeIndexChangeListener(this.entityCache);
+        }
+        if (entityCache != null)
+        {
+            this.operations.addIndexChangeListener(entityCache);
+        }
+
+        this.entityCache = entityCache;
+    }
 }
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr.repository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.search.Indexable;
+import org.springframework.data.search.core.AccessorStrategy;
+import org.springframework.data.search.core.IndexedFieldAccessor;
+import org.springframework.data.search.core.MappingMetadata;
+import org.springframework.data.search.solr.IndexChangeListener;
+import org.springframework.util.Assert;
+
+/**
+ * In-process cache of entities by their unique identifiers, for placing in
+ * front of a {@link SimpleSolrRepository} that serves the same entities over
+ * and over. The cache holds a bounded number of entities, evicting the least
+ * recently used one when full, and each entity expires a fixed time after it
+ * was loaded. Entities are removed as soon as they are changed through the
+ * {@link org.springframework.data.search.solr.SolrOperations} instance the
+ * repository uses, and again once those changes are committed; changes made
+ * by other clients are only seen once cached entities expire. The cache keeps
+ * its own copy of the indexed fields of each entity and hands out a new copy
+ * on every hit, so that callers can modify the entities they get without
+ * other callers seeing the changes. This class is thread-safe.
+ *
+ * @author Manish Baxi
+ * @see SimpleSolrRepository#setEntityCache(SolrEntityCache)
+ */
+public class SolrEntityCache<T extends Indexable> implements IndexChangeListener
+{
+    private final Map<String, CachedEntity<T>> entities;
+    private long                               evictionCount;
+    private long                               expirationCount;
+    private long                               generation;
+    private long                               hitCount;
+    private long                               missCount;
+    private final long                         timeToLive;
+
+    /**
+     * Sets the limits on the cached entities.
+     * 
+     * @param maxSize The maximum number of entities to cache. Must be
+     *            positive.
+     * @param timeToLive The time, in milliseconds, for which an entity is
+     *            cached. Must be positive.
+     */
+    public SolrEntityCache(final int maxSize, final long timeToLive)
+    {
+        Assert.isTrue(maxSize > 0, "Maximum size must be positive!");
+        Assert.isTrue(timeToLive > 0, "Time to live must be positive!");
+
+        this.timeToLive = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+        this.entities = new LinkedHashMap<String, CachedEntity<T>>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedEntity<T>> eldest)
+            {
+                if (this.size() > maxSize)
+                {
+                    ++SolrEntityCache.this.evictionCount;
+
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void entriesChanged(final Collection<String> ids)
+    {
+        ++this.generation;
+        for (String id : ids)
+        {
+            this.entities.remove(id);
+        }
+    }
+
+    /**
+     * Gets a copy of a cached entity.
+     * 
+     * @param id The unique identifier of the entity.
+     * @return A copy of the cached entity, or <code>null</code> if the entity
+     *         is not cached or has expired.
+     */
+    public T get(final String id)
+    {
+        final T entity;
+        synchronized (this)
+        {
+            final CachedEntity<T> cached = this.entities.get(id);
+            if (cached != null && cached.expiry - System.nanoTime() > 0)
+            {
+                ++this.hitCount;
+
+                entity = cached.entity;
+            }
+            else
+            {
+                if (cached != null)
+                {
+                    this.entities.remove(id);
+                    ++this.expirationCount;
+                }
+                ++this.missCount;
+
+                return null;
+            }
+        }
+
+        return copy(entity);
+    }
+
+    /**
+     * Gets the number of entities removed to make room for others.
+     * 
+     * @return The number of evictions.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return this.evictionCount;
+    }
+
+    /**
+     * Gets the number of entities found to have expired.
+     * 
+     * @return The number of expirations.
+     */
+    public synchronized long getExpirationCount()
+    {
+        return this.expirationCount;
+    }
+
+    /**
+     * Gets the number of lookups that found a cached entity.
+     * 
+     * @return The number of hits.
+     */
+    public synchronized long getHitCount()
+    {
+        return this.hitCount;
+    }
+
+    /**
+     * Gets the number of lookups that did not find a cached entity.
+     * 
+     * @return The number of misses.
+     */
+    public synchronized long getMissCount()
+    {
+        return this.missCount;
+    }
+
+    /**
+     * Gets the number of cached entities, including any that have expired but
+     * have not been looked up since.
+     * 
+     * @return The number of cached entities.
+     */
+    public synchronized int getSize()
+    {
+        return this.entities.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void indexChanged()
+    {
+        ++this.generation;
+        this.entities.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String toString()
+    {
+        return "size=" + this.entities.size() + ", hits=" + this.hitCount + ", misses=" + this.missCount + ", evictions=" + this.evictionCount
+                + ", expirations=" + this.expirationCount;
+    }
+
+    /**
+     * Checks whether an entity is cached and has not expired, without
+     * counting the lookup as a hit or a miss.
+     * 
+     * @param id The unique identifier of the entity.
+     * @return Whether the entity is cached.
+     */
+    synchronized boolean contains(final String id)
+    {
+        final CachedEntity<T> cached = this.entities.get(id);
+
+        return cached != null && cached.expiry - System.nanoTime() > 0;
+    }
+
+    /**
+     * Gets a token to pass to {@link #put(Indexable, long)} when an entity
+     * loaded from the search index is to be cached.
+     * 
+     * @return A token identifying the current state of the cache.
+     */
+    synchronized long getGeneration()
+    {
+        return this.generation;
+    }
+
+    /**
+     * Caches an entity, unless an entity has been changed since it started to
+     * be loaded, in which case the loaded entity might be out of date.
+     * 
+     * @param entity The entity to cache.
+     * @param generation The result of {@link #getGeneration()} from before
+     *            the entity started to be loaded.
+     */
+    void put(final T entity, final long generation)
+    {
+        final T copy = copy(entity);
+        synchronized (this)
+        {
+            if (generation == this.generation)
+            {
+                this.entities.put(copy.getId(), new CachedEntity<T>(copy, System.nanoTime() + this.timeToLive));
+            }
+        }
+    }
+
+    /**
+     * Copies the indexed fields of an entity into a new instance, which holds
+     * everything that loading the entity from the search index would.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(final T entity)
+    {
+        final MappingMetadata metadata = MappingMetadata.forClass(entity.getClass());
+        final IndexedFieldAccessor accessor = metadata.getAccessor(AccessorStrategy.METHOD_HANDLE);
+        final Object copy = accessor.newInstance();
+        for (int i = 0; i < metadata.getFieldCount(); ++i)
+        {
+            accessor.setValue(copy, i, accessor.getValue(entity, i));
+        }
+
+        return (T) copy;
+    }
+
+    /**
+     * A cached entity and the time at which it expires.
+     */
+    private static final class CachedEntity<T>
+    {
+        private final T    entity;
+        private final long expiry;
+
+        private CachedEntity(final T entity, final long expiry)
+        {
+            this.entity = entity;
+            this.expiry = expiry;
+        }
+    }
+}
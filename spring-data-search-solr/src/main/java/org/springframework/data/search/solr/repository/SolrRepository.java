@@ -16,6 +16,8 @@
 
 package org.springframework.data.search.solr.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.search.Indexable;
 import org.springframework.data.search.repository.SearchRepository;
@@ -33,6 +35,14 @@ public interface SolrRepository<T extends Indexable> extends SearchRepository<T>
      */
     void commit();
 
+    /**
+     * Counts the records matching a specified query.
+     * 
+     * @param query The query to use for counting records.
+     * @return The number of matching records.
+     */
+    long count(String query);
+
     /**
      * Finds all records matching a specified query.
      * 
@@ -40,4 +50,21 @@ public interface SolrRepository<T extends Indexable> extends SearchRepository<T>
      * @return An {@link Iterable} of {@link Indexable}s.
      */
     Iterable<T> findAll(String query);
+
+    /**
+     * Finds a single page of all records.
+     * 
+     * @param pageable The page to return, along with any sort order.
+     * @return A {@link Page} of {@link Indexable}s.
+     */
+    Page<T> findAll(Pageable pageable);
+
+    /**
+     * Finds a single page of records matching a specified query.
+     * 
+     * @param query The query to use for searching records.
+     * @param pageable The page to return, along with any sort order.
+     * @return A {@link Page} of {@link Indexable}s.
+     */
+    Page<T> findAll(String query, Pageable pageable);
 }
@@ -23,6 +23,7 @@ import org.springframework.data.repository.core.RepositoryMetadata;
 import org.springframework.data.repository.core.support.RepositoryFactorySupport;
 import org.springframework.data.search.solr.SolrOperations;
 import org.springframework.data.search.solr.repository.SimpleSolrRepository;
+import org.springframework.data.search.solr.repository.SolrEntityCache;
 import org.springframework.util.Assert;
 
 
@@ -33,6 +34,9 @@ import org.springframework.util.Assert;
  */
 public class SolrRepositoryFactory extends RepositoryFactorySupport
 {
+    private int                  chunkSize;
+    private int                  entityCacheSize;
+    private long                 entityCacheTimeToLive = 60000;
     private final SolrOperations operations;
 
     /**
@@ -73,6 +77,63 @@ public class SolrRepositoryFactory extends RepositoryFactorySupport
     @Override
     protected Object getTargetRepository(final RepositoryMetadata metadata)
     {
-        return new SimpleSolrRepository(this.operations, new SimpleSolrEntityInformation(metadata.getDomainType()));
+        final SimpleSolrRepository repository = new SimpleSolrRepository(this.operations, new SimpleSolrEntityInformation(metadata.getDomainType()));
+        if (this.chunkSize > 0)
+        {
+            repository.setChunkSize(this.chunkSize);
+        }
+        if (this.entityCacheSize > 0)
+        {
+            repository.setEntityCache(new SolrEntityCache(this.entityCacheSize, this.entityCacheTimeToLive));
+        }
+
+        return repository;
+    }
+
+    /**
+     * Sets the number of entities that repositories created by this factory
+     * send to the search server in each request when saving or deleting
+     * multiple entities. If not set, the repository default is used.
+     * 
+     * @param chunkSize The number of entities per request. Must be positive.
+     * @see SimpleSolrRepository#setChunkSize(int)
+     */
+    public void setChunkSize(final int chunkSize)
+    {
+        Assert.isTrue(chunkSize > 0, "Chunk size must be positive!");
+
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the maximum number of entities cached by each repository created by
+     * this factory when looking up single entities by their unique
+     * identifiers. If zero, which is the default, the repositories do not
+     * cache entities.
+     * 
+     * @param entityCacheSize The maximum number of cached entities per
+     *            repository. Must not be negative.
+     * @see SimpleSolrRepository#setEntityCache(SolrEntityCache)
+     */
+    public void setEntityCacheSize(final int entityCacheSize)
+    {
+        Assert.isTrue(entityCacheSize >= 0, "Entity cache size must not be negative!");
+
+        this.entityCacheSize = entityCacheSize;
+    }
+
+    /**
+     * Sets the time for which repositories created by this factory cache each
+     * entity, if they cache entities. Defaults to one minute.
+     * 
+     * @param entityCacheTimeToLive The time, in milliseconds, for which an
+     *            entity is cached. Must be positive.
+     * @see #setEntityCacheSize(int)
+     */
+    public void setEntityCacheTimeToLive(final long entityCacheTimeToLive)
+    {
+        Assert.isTrue(entityCacheTimeToLive > 0, "Entity cache time to live must be positive!");
+
+        this.entityCacheTimeToLive = entityCacheTimeToLive;
     }
 }
@@ -31,8 +31,50 @@ import org.springframework.data.search.solr.repository.SolrRepository;
  */
 public class SolrRepositoryFactoryBean<T extends SolrRepository<S>, S extends Indexable> extends RepositoryFactoryBeanSupport<T, S, String>
 {
+    private int            chunkSize;
+    private int            entityCacheSize;
+    private long           entityCacheTimeToLive;
     private SolrOperations operations;
 
+    /**
+     * Sets the number of entities sent to the search server in each request
+     * when saving or deleting multiple entities through the created
+     * repositories.
+     * 
+     * @param chunkSize The number of entities per request.
+     * @see SolrRepositoryFactory#setChunkSize(int)
+     */
+    public void setChunkSize(final int chunkSize)
+    {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the maximum number of entities cached by each of the created
+     * repositories when looking up single entities by their unique
+     * identifiers.
+     * 
+     * @param entityCacheSize The maximum number of cached entities per
+     *            repository.
+     * @see SolrRepositoryFactory#setEntityCacheSize(int)
+     */
+    public void setEntityCacheSize(final int entityCacheSize)
+    {
+        this.entityCacheSize = entityCacheSize;
+    }
+
+    /**
+     * Sets the time for which the created repositories cache each entity.
+     * 
+     * @param entityCacheTimeToLive The time, in milliseconds, for which an
+     *            entity is cached.
+     * @see SolrRepositoryFactory#setEntityCacheTimeToLive(long)
+     */
+    public void setEntityCacheTimeToLive(final long entityCacheTimeToLive)
+    {
+        this.entityCacheTimeToLive = entityCacheTimeToLive;
+    }
+
     /**
      * Sets the {@link SolrOperations} instance that will be used to perform
      * operations on the underlying Solr instances.
@@ -50,6 +92,20 @@ public class SolrRepositoryFactoryBean<T extends SolrRepository<S>, S extends In
     @Override
     protected RepositoryFactorySupport createRepositoryFactory()
     {
-        return new SolrRepositoryFactory(this.operations);
+        final SolrRepositoryFactory factory = new SolrRepositoryFactory(this.operations);
+        if (this.chunkSize > 0)
+        {
+            factory.setChunkSize(this.chunkSize);
+        }
+        if (this.entityCacheSize > 0)
+        {
+            factory.setEntityCacheSize(this.entityCacheSize);
+        }
+        if (this.entityCacheTimeToLive > 0)
+        {
+            factory.setEntityCacheTimeToLive(this.entityCacheTimeToLive);
+        }
+
+        return factory;
     }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.springframework.data.search.IndexEntry;
+
+/**
+ * Compares the memory allocated per indexed bean by copying a
+ * {@link SolrIndexEntry} into a {@link SolrDocument} and then into a
+ * {@link SolrInputDocument}, as {@link SolrTemplate} used to, against filling
+ * a {@link SolrInputIndexEntry} that is sent as is. Allocations are measured
+ * for the current thread through
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}, so
+ * the benchmark requires a HotSpot JVM. Not run as part of the test suite;
+ * launch the <code>main</code> method directly.
+ *
+ * @author Manish Baxi
+ */
+public final class IndexEntryAllocationBenchmark
+{
+    private static final int BEANS      = 1000000;
+    private static final int ITERATIONS = 5;
+
+    /**
+     * Prevent instantiation.
+     */
+    private IndexEntryAllocationBenchmark()
+    {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Ignored.
+     */
+    public static void main(final String[] args)
+    {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+        final Date today = new Date();
+
+        long sink = 0;
+        for (int i = 0; i < ITERATIONS; ++i)
+        {
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (int j = 0; j < BEANS; ++j)
+            {
+                sink += copied(j, today).size();
+            }
+            final long copiedTime = System.nanoTime() - start;
+            final long copiedBytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+            bytes = threads.getThreadAllocatedBytes(thread);
+            start = System.nanoTime();
+            for (int j = 0; j < BEANS; ++j)
+            {
+                sink += direct(j, today).size();
+            }
+            final long directTime = System.nanoTime() - start;
+            final long directBytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+            System.out.println(String.format("Iteration %d: copied %d bytes/bean %.1f ns/bean, direct %d bytes/bean %.1f ns/bean", i + 1, copiedBytes / BEANS,
+                    (double) copiedTime / BEANS, directBytes / BEANS, (double) directTime / BEANS));
+        }
+
+        System.out.println(sink);
+    }
+
+    /**
+     * Builds a Solr input document the way {@link SolrTemplate} used to.
+     */
+    private static SolrInputDocument copied(final int id, final Date date)
+    {
+        final IndexEntry entry = new SolrIndexEntry(new SolrDocument());
+        fill(entry, id, date);
+
+        final SolrDocument solrDocument = new SolrDocument();
+        solrDocument.putAll(entry);
+
+        return ClientUtils.toSolrInputDocument(solrDocument);
+    }
+
+    /**
+     * Builds a Solr input document through a {@link SolrInputIndexEntry}.
+     */
+    private static SolrInputDocument direct(final int id, final Date date)
+    {
+        final SolrInputIndexEntry entry = new SolrInputIndexEntry();
+        fill(entry, id, date);
+
+        return entry.getSolrInputDocument();
+    }
+
+    /**
+     * Puts the indexed fields of a dummy bean into an entry.
+     */
+    private static void fill(final IndexEntry entry, final int id, final Date date)
+    {
+        entry.put("id", String.valueOf(id));
+        entry.put("last_modified", date);
+        entry.put("name", "dummy name");
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.data.search.DummyBean;
+import org.springframework.data.search.IndexEntry;
+
+/**
+ * Compares the time taken to convert a large collection of beans into search
+ * index entries on the calling thread against converting them in parallel on
+ * a {@link ForkJoinPool} with as many threads as there are processors.
+ * Converted chunks are discarded instead of being sent to a Solr server, so
+ * that only conversion is measured. Not run as part of the test suite; launch
+ * the <code>main</code> method directly.
+ *
+ * @author Manish Baxi
+ */
+public final class ParallelConversionBenchmark
+{
+    private static final int BEANS      = 1000000;
+    private static final int ITERATIONS = 5;
+
+    /**
+     * Prevent instantiation.
+     */
+    private ParallelConversionBenchmark()
+    {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Ignored.
+     */
+    public static void main(final String[] args) throws Exception
+    {
+        final Date today = new Date();
+        final List<DummyBean> beans = new ArrayList<DummyBean>(BEANS);
+        for (int i = 0; i < BEANS; ++i)
+        {
+            beans.add(new DummyBean(String.valueOf(i), today, "dummy name " + i));
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool();
+        final SolrTemplate sequential = new DiscardingSolrTemplate();
+        final SolrTemplate parallel = new DiscardingSolrTemplate();
+        parallel.setConversionExecutor(pool);
+
+        try
+        {
+            for (int i = 0; i < ITERATIONS; ++i)
+            {
+                long start = System.nanoTime();
+                sequential.index(beans);
+                final long sequentialTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                parallel.index(beans);
+                final long parallelTime = System.nanoTime() - start;
+
+                System.out.println(String.format("Iteration %d: sequential %.1f ns/bean, parallel on %d threads %.1f ns/bean", i + 1,
+                        (double) sequentialTime / BEANS, pool.getParallelism(), (double) parallelTime / BEANS));
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Discards converted entries instead of sending them.
+     */
+    private static final class DiscardingSolrTemplate extends SolrTemplate
+    {
+        private DiscardingSolrTemplate() throws Exception
+        {
+            super("default", true, new String[] { "solr/solr.xml" });
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Collection<String> add(final Collection<IndexEntry> entries)
+        {
+            final List<String> ids = new ArrayList<String>(entries.size());
+            for (IndexEntry entry : entries)
+            {
+                ids.add((String) entry.get("id"));
+            }
+
+            return ids;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Collection<String> addChunk(final List<IndexEntry> entries, final boolean last)
+        {
+            return this.add(entries);
+        }
+    }
+}
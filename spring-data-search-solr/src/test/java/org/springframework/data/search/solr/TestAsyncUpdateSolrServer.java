@@ -0,0 +1,264 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.AbstractUpdateRequest;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Test;
+import org.springframework.data.search.IndexQueueFullException;
+
+/**
+ * Unit tests for {@link AsyncUpdateSolrServer}.
+ *
+ * @author Manish Baxi
+ */
+public class TestAsyncUpdateSolrServer
+{
+    /**
+     * Tests that queued additions are merged into one request, while
+     * deletions and commits are sent in order.
+     */
+    @Test
+    public void testBatchAssembly() throws Exception
+    {
+        final RecordingSolrServer delegate = new RecordingSolrServer();
+        final AsyncUpdateSolrServer server = new AsyncUpdateSolrServer(delegate, 10, 1, 10, OverflowPolicy.BLOCK);
+
+        server.add(document("gate"));
+        delegate.entered.await();
+        server.add(document("1"));
+        server.add(document("2"));
+        server.deleteById("1");
+        server.add(document("3"));
+        delegate.release.countDown();
+        server.commit();
+        server.shutdown();
+
+        assertEquals(5, delegate.requests.size());
+        assertEquals(2, delegate.requests.get(1).getDocuments().size());
+        assertEquals("1", delegate.requests.get(2).getDeleteById().get(0));
+        assertEquals(1, delegate.requests.get(3).getDocuments().size());
+        assertEquals(AbstractUpdateRequest.ACTION.COMMIT, delegate.requests.get(4).getAction());
+    }
+
+    /**
+     * Tests that updates are rejected while the queue is full when failing
+     * fast.
+     */
+    @Test
+    public void testFailFast() throws Exception
+    {
+        final RecordingSolrServer delegate = new RecordingSolrServer();
+        final AsyncUpdateSolrServer server = new AsyncUpdateSolrServer(delegate, 1, 1, 10, OverflowPolicy.FAIL_FAST);
+
+        server.add(document("gate"));
+        delegate.entered.await();
+        server.add(document("1"));
+        try
+        {
+            server.add(document("2"));
+            fail("Expected an IndexQueueFullException");
+        }
+        catch (IndexQueueFullException e)
+        {
+            final UpdateQueueMetrics metrics = server.getMetrics();
+            assertEquals(1, metrics.getQueueDepth());
+            assertEquals(1, metrics.getQueueCapacity());
+            assertEquals(1, metrics.getInFlightBatches());
+            assertEquals(1, metrics.getRejectedRequests());
+        }
+
+        delegate.release.countDown();
+        server.shutdown();
+
+        final UpdateQueueMetrics metrics = server.getMetrics();
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(0, metrics.getInFlightBatches());
+        assertEquals(2, metrics.getSentRequests());
+    }
+
+    /**
+     * Tests that updates are sent by the caller while the queue is full when
+     * the caller runs them.
+     */
+    @Test
+    public void testCallerRuns() throws Exception
+    {
+        final RecordingSolrServer delegate = new RecordingSolrServer();
+        final AsyncUpdateSolrServer server = new AsyncUpdateSolrServer(delegate, 1, 1, 10, OverflowPolicy.CALLER_RUNS);
+
+        server.add(document("gate"));
+        delegate.entered.await();
+        server.add(document("1"));
+        server.add(document("2"));
+
+        assertEquals(1, delegate.requests.size());
+        assertEquals("2", delegate.requests.get(0).getDocuments().get(0).getFieldValue("id"));
+        assertEquals(1, server.getMetrics().getCallerRunRequests());
+
+        delegate.release.countDown();
+        server.shutdown();
+
+        assertEquals(3, delegate.requests.size());
+    }
+
+    /**
+     * Tests that updates still queued when draining times out are dropped.
+     */
+    @Test
+    public void testDrainTimeout() throws Exception
+    {
+        final RecordingSolrServer delegate = new RecordingSolrServer();
+        final AsyncUpdateSolrServer server = new AsyncUpdateSolrServer(delegate, 10, 1, 10, OverflowPolicy.BLOCK);
+
+        server.add(document("gate"));
+        delegate.entered.await();
+        server.add(document("1"));
+        server.deleteById(Arrays.asList("2", "3"));
+        assertEquals(4, server.getPendingUpdates());
+
+        assertEquals(3, server.drain(50));
+        delegate.release.countDown();
+        while (server.getPendingUpdates() != 0)
+        {
+            Thread.sleep(1);
+        }
+
+        assertEquals(1, delegate.requests.size());
+    }
+
+    /**
+     * Tests that queries are not queued.
+     */
+    @Test
+    public void testQueryForwarded() throws Exception
+    {
+        final RecordingSolrServer delegate = new RecordingSolrServer();
+        final AsyncUpdateSolrServer server = new AsyncUpdateSolrServer(delegate, 10, 1, 10, OverflowPolicy.BLOCK);
+
+        assertNotNull(server.query(new SolrQuery("*:*")));
+        assertEquals(1, delegate.queries);
+
+        server.shutdown();
+    }
+
+    /**
+     * Tests that a failure to send a queued update is reported by the next
+     * commit, and only once.
+     */
+    @Test
+    public void testFailureReportedOnCommit() throws Exception
+    {
+        final RecordingSolrServer delegate = new RecordingSolrServer();
+        final AsyncUpdateSolrServer server = new AsyncUpdateSolrServer(delegate, 10, 2, 10, OverflowPolicy.BLOCK);
+
+        server.add(document("bad"));
+        try
+        {
+            server.commit();
+            fail("Expected a SolrServerException");
+        }
+        catch (SolrServerException e)
+        {
+            assertNotNull(e.getCause());
+        }
+
+        assertNull(server.commit().getResponse().get("error"));
+        server.shutdown();
+    }
+
+    /**
+     * Creates a document with an identifier.
+     */
+    private static SolrInputDocument document(final String id)
+    {
+        final SolrInputDocument document = new SolrInputDocument();
+        document.setField("id", id);
+
+        return document;
+    }
+
+    /**
+     * Records the requests it receives, failing for documents with the
+     * identifier <code>bad</code> and waiting to be released when it receives
+     * a document with the identifier <code>gate</code>.
+     */
+    private static final class RecordingSolrServer extends SolrServer
+    {
+        private static final long         serialVersionUID = 1L;
+
+        private final CountDownLatch      entered          = new CountDownLatch(1);
+        private int                       queries;
+        private final CountDownLatch      release          = new CountDownLatch(1);
+        private final List<UpdateRequest> requests         = Collections.synchronizedList(new ArrayList<UpdateRequest>());
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public NamedList<Object> request(final SolrRequest request) throws SolrServerException, IOException
+        {
+            if (!(request instanceof UpdateRequest))
+            {
+                ++this.queries;
+
+                return new NamedList<Object>();
+            }
+
+            final UpdateRequest update = (UpdateRequest) request;
+            final Object id = update.getDocuments() == null ? null : update.getDocuments().get(0).getFieldValue("id");
+            if ("bad".equals(id))
+            {
+                throw new SolrServerException("bad document");
+            }
+            if ("gate".equals(id))
+            {
+                this.entered.countDown();
+                try
+                {
+                    this.release.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            this.requests.add(update);
+
+            return new NamedList<Object>();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SolrInputIndexEntry}.
+ *
+ * @author Manish Baxi
+ */
+public class TestSolrInputIndexEntry
+{
+    /**
+     * Tests that values put into the entry are written to the wrapped
+     * document.
+     */
+    @Test
+    public void testPut()
+    {
+        final SolrInputIndexEntry entry = new SolrInputIndexEntry();
+
+        assertNull(entry.put("id", "1"));
+        assertEquals("1", entry.put("id", "2"));
+        entry.put("tags", Arrays.asList("a", "b"));
+
+        final SolrInputDocument document = entry.getSolrInputDocument();
+        assertEquals("2", document.getFieldValue("id"));
+        assertEquals(Arrays.<Object> asList("a", "b"), document.getFieldValues("tags"));
+        assertEquals(Arrays.asList("a", "b"), entry.get("tags"));
+        assertEquals(2, entry.size());
+    }
+
+    /**
+     * Tests that the map views read and write through to the wrapped
+     * document.
+     */
+    @Test
+    public void testEntrySet()
+    {
+        final SolrInputIndexEntry entry = new SolrInputIndexEntry();
+        entry.put("id", "1");
+        entry.put("name", "dummy name");
+
+        for (Map.Entry<String, Object> field : entry.entrySet())
+        {
+            if (field.getKey().equals("name"))
+            {
+                field.setValue("other name");
+            }
+        }
+        assertEquals("other name", entry.getSolrInputDocument().getFieldValue("name"));
+
+        final Iterator<Map.Entry<String, Object>> iterator = entry.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next().getKey().equals("id"))
+            {
+                iterator.remove();
+            }
+        }
+        assertFalse(entry.getSolrInputDocument().containsKey("id"));
+        assertEquals("other name", entry.remove("name"));
+        assertEquals(0, entry.getSolrInputDocument().size());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.data.search.QueryResponse;
+
+/**
+ * Unit tests for {@link SolrQueryCoalescer}.
+ *
+ * @author Manish Baxi
+ */
+public class TestSolrQueryCoalescer
+{
+    private static final int FOLLOWERS = 4;
+
+    /**
+     * Tests that identical queries made while one is in progress share its
+     * response, and that the query is sent again once it has completed.
+     */
+    @Test
+    public void testShareResponse() throws Exception
+    {
+        final SolrQueryCoalescer coalescer = new SolrQueryCoalescer();
+        final SolrQueryResponse response = new SolrQueryResponse();
+        final GatedQuery query = new GatedQuery(response, null);
+
+        final List<Object> results = this.queryConcurrently(coalescer, query);
+
+        assertEquals(FOLLOWERS + 1, results.size());
+        for (Object result : results)
+        {
+            assertSame(response, result);
+        }
+        assertEquals(1, query.calls.get());
+        assertEquals(FOLLOWERS, coalescer.getCollapsedCount());
+
+        query.release.countDown();
+        assertSame(response, coalescer.query("q", query));
+        assertEquals(2, query.calls.get());
+    }
+
+    /**
+     * Tests that the failure of a shared query is reported to every caller.
+     */
+    @Test
+    public void testShareFailure() throws Exception
+    {
+        final SolrQueryCoalescer coalescer = new SolrQueryCoalescer();
+        final IllegalArgumentException failure = new IllegalArgumentException("bad query");
+        final GatedQuery query = new GatedQuery(null, failure);
+
+        final List<Object> results = this.queryConcurrently(coalescer, query);
+
+        assertEquals(FOLLOWERS + 1, results.size());
+        for (Object result : results)
+        {
+            assertSame(failure, result);
+        }
+        assertEquals(1, query.calls.get());
+    }
+
+    /**
+     * Starts a query and then the same query on several other threads, lets
+     * the first one complete once all the others are waiting for it, and
+     * returns what each thread got back.
+     */
+    private List<Object> queryConcurrently(final SolrQueryCoalescer coalescer, final GatedQuery query) throws InterruptedException
+    {
+        final List<Object> results = new ArrayList<Object>();
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i <= FOLLOWERS; ++i)
+        {
+            final Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    Object result;
+                    try
+                    {
+                        result = coalescer.query("q", query);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        result = e;
+                    }
+
+                    synchronized (results)
+                    {
+                        results.add(result);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+
+            if (i == 0)
+            {
+                query.entered.await();
+            }
+        }
+
+        while (coalescer.getCollapsedCount() < FOLLOWERS)
+        {
+            Thread.sleep(5);
+        }
+        query.release.countDown();
+
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        return results;
+    }
+
+    /**
+     * Query that blocks until released, then returns a response or fails.
+     */
+    private static final class GatedQuery implements Callable<QueryResponse>
+    {
+        private final AtomicInteger    calls   = new AtomicInteger();
+        private final CountDownLatch   entered = new CountDownLatch(1);
+        private final RuntimeException failure;
+        private final CountDownLatch   release = new CountDownLatch(1);
+        private final QueryResponse    response;
+
+        private GatedQuery(final QueryResponse response, final RuntimeException failure)
+        {
+            this.failure = failure;
+            this.response = response;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public QueryResponse call() throws InterruptedException
+        {
+            this.calls.incrementAndGet();
+            this.entered.countDown();
+            this.release.await();
+
+            if (this.failure != null)
+            {
+                throw this.failure;
+            }
+
+            return this.response;
+        }
+    }
+}
@@ -17,29 +17,56 @@
 package org.springframework.data.search.solr;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.search.AnythingToBeIndexedBean;
 import org.springframework.data.search.DummyBean;
 import org.springframework.data.search.EmptyBean;
 import org.springframework.data.search.IndexEntry;
 import org.springframework.data.search.IndexEntryMapper;
+import org.springframework.data.search.IndexSummary;
 import org.springframework.data.search.InvalidIndexEntryException;
+import org.springframework.data.search.InvalidOperationException;
 import org.springframework.data.search.InvalidParamsException;
 import org.springframework.data.search.InvalidQueryException;
+import org.springframework.data.search.QueryCallback;
+import org.springframework.data.search.QueryFuture;
 import org.springframework.data.search.QueryResponse;
 import org.springframework.data.search.SearchOperations;
 import org.springframework.data.search.core.SimpleIndexEntry;
+import org.springframework.data.search.core.WeightedQueryResultCache;
 import org.xml.sax.SAXException;
 
 /**
@@ -218,6 +245,845 @@ public class TestSolrTemplate
         assertEquals(bean1, beans.iterator().next());
     }
 
+    @Test
+    public void searchWithPageable()
+    {
+        for (int i = 1; i <= 5; ++i)
+        {
+            IndexEntry document = new SimpleIndexEntry();
+            document.put("id", String.valueOf(i));
+            document.put("name", "toto" + i);
+
+            searchOperations.add(document);
+        }
+
+        QueryResponse response = searchOperations.query("*:*", new PageRequest(1, 2, new Sort(Sort.Direction.DESC, "id")));
+        assertNotNull(response);
+        assertEquals(5, response.getTotalCount());
+        assertEquals(2, response.getMatchingEntries().size());
+
+        final Iterator<? extends IndexEntry> resultsIterator = response.getMatchingEntries().iterator();
+        assertEquals("3", resultsIterator.next().get("id"));
+        assertEquals("2", resultsIterator.next().get("id"));
+    }
+
+    @Test
+    public void findPageAndMapDocumentsWithAClass()
+    {
+        Date today = new Date();
+        searchOperations.index(new DummyBean("1234", today, "dummy name"), new DummyBean("2345", today, "dummy name 2"), new DummyBean("3456", today, "dummy name 3"));
+
+        Page<DummyBean> page = searchOperations.query("*:*", new PageRequest(0, 2, new Sort("id")), DummyBean.class);
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+        assertEquals(2, page.getNumberOfElements());
+        assertEquals("1234", page.getContent().get(0).getId());
+        assertEquals("2345", page.getContent().get(1).getId());
+    }
+
+    @Test
+    public void searchWithProjection()
+    {
+        IndexEntry document = new SimpleIndexEntry();
+        document.put("id", "123");
+        document.put("name", "toto");
+        document.put("description", "a long description");
+
+        searchOperations.add(document);
+
+        QueryResponse response = searchOperations.query("id:123", null, "id", "name");
+        assertEquals(1, response.getMatchingEntries().size());
+
+        final IndexEntry result = response.getMatchingEntries().iterator().next();
+        assertEquals("toto", result.get("name"));
+        assertFalse(result.containsKey("description"));
+        assertNotNull(result.getScore());
+    }
+
+    @Test
+    public void findWithClassRequestsIndexedFieldsOnly() throws Exception
+    {
+        final List<String> projections = new ArrayList<String>();
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" })
+        {
+            @Override
+            public QueryResponse query(final String query, final Pageable pageable, final String... fields)
+            {
+                projections.add(Arrays.toString(fields));
+
+                return super.query(query, pageable, fields);
+            }
+        };
+
+        template.index(new DummyBean("1234", new Date(), "dummy name"));
+
+        assertEquals(1, template.query("id:1234", DummyBean.class).size());
+        assertEquals(1, template.query("id:1234", new PageRequest(0, 10), DummyBean.class).getNumberOfElements());
+        assertEquals(Arrays.asList("[id, last_modified, name]", "[id, last_modified, name]"), projections);
+    }
+
+    @Test
+    public void scanAllDocuments()
+    {
+        final Date today = new Date();
+        final List<DummyBean> beans = new ArrayList<DummyBean>();
+        for (int i = 10; i < 35; ++i)
+        {
+            beans.add(new DummyBean("id " + i + (i % 2 == 0 ? ":x" : "\"\\x"), today, "dummy name " + i));
+        }
+
+        searchOperations.index(beans);
+
+        final Iterator<DummyBean> iterator = searchOperations.scan("*:*", 10, DummyBean.class);
+        for (DummyBean bean : beans)
+        {
+            assertTrue(iterator.hasNext());
+            assertEquals(bean.getId(), iterator.next().getId());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void indexStreamInChunks() throws Exception
+    {
+        final AtomicInteger chunks = new AtomicInteger();
+        final AtomicInteger commits = new AtomicInteger();
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" })
+        {
+            @Override
+            public void commit()
+            {
+                commits.incrementAndGet();
+
+                super.commit();
+            }
+
+            @Override
+            protected Collection<String> addChunk(final List<IndexEntry> entries, final boolean last)
+            {
+                assertTrue(entries.size() <= 10);
+                chunks.incrementAndGet();
+
+                return super.addChunk(entries, last);
+            }
+        };
+        template.setIndexChunkSize(10);
+
+        final Date today = new Date();
+        final IndexSummary summary = template.index(new Iterator<Object>()
+        {
+            private int next;
+
+            @Override
+            public boolean hasNext()
+            {
+                return this.next < 26;
+            }
+
+            @Override
+            public Object next()
+            {
+                final int i = this.next++;
+
+                return i == 7 ? new EmptyBean() : new DummyBean("id" + i, today, "dummy name");
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        assertEquals(25, summary.getIndexedCount());
+        assertEquals(1, summary.getFailedCount());
+        assertEquals(1, summary.getFailures().size());
+        assertEquals(7, summary.getFailures().get(0).getPosition());
+        assertTrue(summary.getFailures().get(0).getCause() instanceof InvalidIndexEntryException);
+        assertEquals(3, chunks.get());
+        assertEquals(1, commits.get());
+        assertEquals(25, template.query("*:*", new PageRequest(0, 1)).getTotalCount());
+    }
+
+    @Test
+    public void indexCollectionInParallelInOrder() throws Exception
+    {
+        final List<String> ids = indexInParallel(new ForkJoinPool(4), true);
+
+        for (int i = 0; i < ids.size(); ++i)
+        {
+            assertEquals("id" + i, ids.get(i));
+        }
+    }
+
+    @Test
+    public void indexCollectionInParallelOutOfOrder() throws Exception
+    {
+        final List<String> ids = indexInParallel(new ForkJoinPool(4), false);
+
+        Collections.sort(ids);
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < ids.size(); ++i)
+        {
+            expected.add("id" + i);
+        }
+        Collections.sort(expected);
+        assertEquals(expected, ids);
+    }
+
+    @Test
+    public void indexCollectionInParallelOnUnboundedPool() throws Exception
+    {
+        assertEquals(95, indexInParallel(Executors.newCachedThreadPool(), true).size());
+        assertEquals(95, indexInParallel(Executors.newCachedThreadPool(), false).size());
+    }
+
+    @Test
+    public void indexCollectionInParallelWithoutCommitting() throws Exception
+    {
+        final AtomicInteger commits = new AtomicInteger();
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" })
+        {
+            @Override
+            public void commit()
+            {
+                commits.incrementAndGet();
+
+                super.commit();
+            }
+        };
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        template.setConversionExecutor(pool);
+        template.setIndexChunkSize(10);
+
+        final Date today = new Date();
+        final List<DummyBean> beans = new ArrayList<DummyBean>();
+        for (int i = 0; i < 95; ++i)
+        {
+            beans.add(new DummyBean("id" + i, today, "dummy name"));
+        }
+
+        try
+        {
+            assertEquals(95, template.index(beans, false).size());
+            assertEquals(0, commits.get());
+
+            template.commit();
+
+            assertEquals(95, template.query("*:*", new PageRequest(0, 1)).getTotalCount());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void countWithoutFetchingDocuments() throws Exception
+    {
+        final List<Integer> rows = new ArrayList<Integer>();
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" })
+        {
+            @Override
+            public QueryResponse query(final SolrQuery solrQuery)
+            {
+                rows.add(solrQuery.getRows());
+
+                return super.query(solrQuery);
+            }
+        };
+
+        final Date today = new Date();
+        template.index(new DummyBean("1", today, "dummy name"), new DummyBean("2", today, "dummy name"), new DummyBean("3", today, "other name"));
+
+        assertEquals(3, template.count("*:*"));
+        assertEquals(2, template.count("name:dummy"));
+        assertEquals(Arrays.asList(0, 0), rows);
+    }
+
+    @Test
+    public void cacheCountsUntilNextWrite() throws Exception
+    {
+        final AtomicInteger queries = new AtomicInteger();
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" })
+        {
+            @Override
+            public QueryResponse query(final SolrQuery solrQuery)
+            {
+                queries.incrementAndGet();
+
+                return super.query(solrQuery);
+            }
+        };
+        template.setCacheCounts(true);
+
+        final Date today = new Date();
+        template.index(new DummyBean("1", today, "dummy name"));
+
+        assertEquals(1, template.count("*:*"));
+        assertEquals(1, template.count("*:*"));
+        assertEquals(1, queries.get());
+
+        template.index(new DummyBean("2", today, "dummy name"));
+
+        assertEquals(2, template.count("*:*"));
+        assertEquals(2, queries.get());
+
+        template.delete("1");
+
+        assertEquals(1, template.count("*:*"));
+        assertEquals(3, queries.get());
+    }
+
+    @Test
+    public void cacheQueryResponsesUntilNextWrite() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        final WeightedQueryResultCache cache = new WeightedQueryResultCache(1024 * 1024);
+        template.setQueryResultCache(cache);
+
+        final Date today = new Date();
+        template.index(new DummyBean("1", today, "dummy name"));
+
+        assertEquals(1, template.query("name:dummy", DummyBean.class).size());
+        assertEquals(1, template.query("name:dummy", DummyBean.class).size());
+        assertEquals(1, template.query("name:dummy", new PageRequest(0, 10), DummyBean.class).getNumberOfElements());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+
+        template.index(new DummyBean("2", today, "dummy name"));
+
+        assertEquals(2, template.query("name:dummy", DummyBean.class).size());
+        assertEquals(1, cache.getHitCount());
+
+        template.deleteByQuery("id:1");
+
+        assertEquals(1, template.query("name:dummy", DummyBean.class).size());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void coalesceConcurrentQueries() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setCoalesceQueries(true);
+
+        template.index(new DummyBean("1", new Date(), "dummy name"));
+
+        final List<Thread> threads = new ArrayList<Thread>();
+        final AtomicInteger found = new AtomicInteger();
+        for (int i = 0; i < 8; ++i)
+        {
+            final Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for (int j = 0; j < 20; ++j)
+                    {
+                        found.addAndGet(template.query("name:dummy", DummyBean.class).size());
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertEquals(160, found.get());
+    }
+
+    @Test
+    public void queryAsynchronously() throws Exception
+    {
+        final Date today = new Date();
+        searchOperations.index(new DummyBean("1", today, "dummy name"), new DummyBean("2", today, "dummy name"), new DummyBean("3", today, "other name"));
+
+        final QueryFuture<Collection<DummyBean>> dummies = searchOperations.queryAsync("name:dummy", DummyBean.class);
+        final QueryFuture<Page<DummyBean>> page = searchOperations.queryAsync("*:*", new PageRequest(0, 2), DummyBean.class);
+        final QueryFuture<QueryResponse> response = searchOperations.queryAsync("name:other", (Pageable) null);
+
+        final CountDownLatch failed = new CountDownLatch(1);
+        searchOperations.queryAsync("name:[", DummyBean.class).addCallback(new QueryCallback<Collection<DummyBean>>()
+        {
+            @Override
+            public void onFailure(final Throwable cause)
+            {
+                failed.countDown();
+            }
+
+            @Override
+            public void onSuccess(final Collection<DummyBean> result)
+            {
+            }
+        });
+
+        assertEquals(2, dummies.get().size());
+        assertEquals(3, page.get().getTotalElements());
+        assertEquals(2, page.get().getNumberOfElements());
+        assertEquals(1, response.get().getTotalCount());
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void queryAsynchronouslyFromCallback() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        template.setQueryExecutor(executor);
+
+        final Date today = new Date();
+        template.index(new DummyBean("1", today, "dummy name"), new DummyBean("2", today, "other name"));
+
+        final AtomicInteger found = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        try
+        {
+            template.queryAsync("name:dummy", DummyBean.class).addCallback(new QueryCallback<Collection<DummyBean>>()
+            {
+                @Override
+                public void onFailure(final Throwable cause)
+                {
+                    done.countDown();
+                }
+
+                @Override
+                public void onSuccess(final Collection<DummyBean> result)
+                {
+                    try
+                    {
+                        found.set(result.size() + template.queryAsync("name:other", DummyBean.class).get().size());
+                    }
+                    catch (Exception e)
+                    {
+                        found.set(-1);
+                    }
+                    done.countDown();
+                }
+            });
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(2, found.get());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void findByIdsInBatches() throws Exception
+    {
+        final AtomicInteger queries = new AtomicInteger();
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" })
+        {
+            @Override
+            public QueryResponse query(final SolrQuery solrQuery)
+            {
+                queries.incrementAndGet();
+
+                return super.query(solrQuery);
+            }
+        };
+        template.setIdLookupBatchSize(10);
+
+        final Date today = new Date();
+        final List<DummyBean> beans = new ArrayList<DummyBean>();
+        for (int i = 0; i < 25; ++i)
+        {
+            beans.add(new DummyBean("id " + i + (i % 2 == 0 ? ":x" : "\"\\x"), today, "dummy name " + i));
+        }
+        template.index(beans);
+
+        final List<String> ids = new ArrayList<String>();
+        for (int i = beans.size() - 1; i >= 0; --i)
+        {
+            ids.add(beans.get(i).getId());
+        }
+        ids.add(3, "missing");
+        ids.add(beans.get(0).getId());
+
+        final List<DummyBean> results = template.findByIds(ids, DummyBean.class);
+
+        assertEquals(25, results.size());
+        for (int i = 0; i < results.size(); ++i)
+        {
+            assertEquals(beans.get(beans.size() - 1 - i).getId(), results.get(i).getId());
+            assertEquals(beans.get(beans.size() - 1 - i).getName(), results.get(i).getName());
+        }
+        assertEquals(3, queries.get());
+    }
+
+    @Test
+    public void findByIdsOnScanExecutorThread() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setIdLookupBatchSize(2);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        template.setScanExecutor(executor);
+
+        final Date today = new Date();
+        final List<DummyBean> beans = new ArrayList<DummyBean>();
+        final List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 7; ++i)
+        {
+            beans.add(new DummyBean("nested " + i, today, "dummy name " + i));
+            ids.add("nested " + i);
+        }
+        template.index(beans);
+
+        try
+        {
+            final Future<List<DummyBean>> results = executor.submit(new Callable<List<DummyBean>>()
+            {
+                @Override
+                public List<DummyBean> call()
+                {
+                    return template.findByIds(ids, DummyBean.class);
+                }
+            });
+
+            assertEquals(7, results.get(10, TimeUnit.SECONDS).size());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void existsAndFindByIdWithEscapedIds() throws Exception
+    {
+        final List<SolrQuery> queries = new ArrayList<SolrQuery>();
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" })
+        {
+            @Override
+            public QueryResponse query(final SolrQuery solrQuery)
+            {
+                queries.add(solrQuery);
+
+                return super.query(solrQuery);
+            }
+        };
+
+        final String id = "id 1:x \"quoted\" \\";
+        template.index(new DummyBean(id, new Date(), "dummy name"), new DummyBean("id", new Date(), "other name"));
+
+        assertTrue(template.exists(id));
+        assertFalse(template.exists("id 1"));
+        assertEquals(Integer.valueOf(0), queries.get(0).getRows());
+        assertEquals("id", queries.get(0).getFields());
+
+        final DummyBean bean = template.findById(id, DummyBean.class);
+        assertEquals(id, bean.getId());
+        assertEquals("dummy name", bean.getName());
+        assertEquals(Integer.valueOf(1), queries.get(2).getRows());
+        assertEquals(null, template.findById("id 1", DummyBean.class));
+    }
+
+    @Test
+    public void scanExactMultipleOfBatchSize()
+    {
+        final Date today = new Date();
+        searchOperations.index(new DummyBean("1", today, "dummy name"), new DummyBean("2", today, "dummy name"), new DummyBean("3", today, "other name"),
+                new DummyBean("4", today, "dummy name"));
+
+        final Iterator<DummyBean> iterator = searchOperations.scan("name:dummy", 3, DummyBean.class);
+        int count = 0;
+        while (iterator.hasNext())
+        {
+            assertEquals("dummy name", iterator.next().getName());
+            ++count;
+        }
+
+        assertEquals(3, count);
+    }
+
+    @Test
+    public void batchUpdatesUntilBatchIsFull() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setUpdateBatchSize(3);
+        template.setUpdateBatchLatency(0);
+
+        final Date today = new Date();
+        template.index(new DummyBean("1", today, "dummy name"), new DummyBean("2", today, "dummy name"));
+        assertEquals(0, template.query("*:*").getMatchingEntries().size());
+
+        template.index(new DummyBean("3", today, "dummy name"));
+        assertEquals(3, template.query("*:*").getMatchingEntries().size());
+
+        template.close();
+    }
+
+    @Test
+    public void batchUpdatesUntilLatencyExpires() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setUpdateBatchSize(100);
+        template.setUpdateBatchLatency(50);
+
+        template.index(new DummyBean("1", new Date(), "dummy name"));
+        awaitCount(template, "id:1", 1);
+
+        template.close();
+    }
+
+    @Test
+    public void flushBatchedUpdatesInOrder() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setUpdateBatchSize(100);
+        template.setUpdateBatchLatency(0);
+
+        final Date today = new Date();
+        template.index(new DummyBean("1", today, "dummy name"), new DummyBean("2", today, "dummy name"));
+        template.delete("1");
+        template.index(new DummyBean("1", today, "other name"));
+        template.deleteByQuery("id:2");
+        assertEquals(0, template.query("*:*").getMatchingEntries().size());
+
+        template.flush();
+
+        final Collection<DummyBean> beans = template.query("*:*", DummyBean.class);
+        assertEquals(1, beans.size());
+        assertEquals("other name", beans.iterator().next().getName());
+
+        template.close();
+    }
+
+    @Test
+    public void commitWithinMakesUpdatesVisible() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setCommitPolicy(CommitPolicy.COMMIT_WITHIN);
+        template.setCommitWithin(50);
+
+        template.index(new DummyBean("1", new Date(), "dummy name"));
+        awaitCount(template, "id:1", 1);
+
+        template.delete("1");
+        awaitCount(template, "id:1", 0);
+    }
+
+    @Test
+    public void coalesceConcurrentCommits() throws Exception
+    {
+        final CountDownLatch inCommit = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger commits = new AtomicInteger();
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" })
+        {
+            @Override
+            public void commit()
+            {
+                if (commits.incrementAndGet() == 1)
+                {
+                    inCommit.countDown();
+                    try
+                    {
+                        release.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                super.commit();
+            }
+        };
+        template.setCommitPolicy(CommitPolicy.COALESCED);
+
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; ++i)
+        {
+            final String id = String.valueOf(i);
+            threads.add(new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    template.index(new DummyBean(id, new Date(), "dummy name"));
+                }
+            });
+        }
+
+        threads.get(0).start();
+        inCommit.await();
+        for (Thread thread : threads.subList(1, threads.size()))
+        {
+            thread.start();
+            while (thread.getState() != Thread.State.WAITING)
+            {
+                Thread.sleep(1);
+            }
+        }
+
+        release.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertEquals(2, commits.get());
+        assertEquals(4, template.query("*:*").getMatchingEntries().size());
+    }
+
+    @Test
+    public void streamUpdatesToEmbeddedServer() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setAllowStreaming(true);
+        template.setAutoCommit(false);
+        template.setThreadCount(2);
+        template.afterPropertiesSet();
+
+        final Date today = new Date();
+        for (int i = 0; i < 50; ++i)
+        {
+            template.index(new DummyBean(String.valueOf(i), today, "dummy name"));
+        }
+        template.delete("0");
+        template.commit();
+
+        assertEquals(49, template.query("*:*", new PageRequest(0, 100)).getMatchingEntries().size());
+
+        final UpdateQueueMetrics metrics = template.getStreamingMetrics();
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(1000, metrics.getQueueCapacity());
+        assertEquals(51, metrics.getSentRequests());
+
+        template.close();
+    }
+
+    @Test
+    public void coalesceBatchedUpdatesToTheSameDocument() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setUpdateBatchSize(3);
+        template.setUpdateBatchLatency(0);
+
+        final Date today = new Date();
+        for (int i = 0; i < 5; ++i)
+        {
+            template.index(new DummyBean("1", today, "dummy name " + i));
+        }
+        template.index(new DummyBean("2", today, "dummy name"));
+        template.delete("2");
+        assertEquals(0, template.query("*:*").getMatchingEntries().size());
+        assertEquals(5, template.getCoalescedUpdateCount());
+
+        template.flush();
+
+        final Collection<DummyBean> beans = template.query("*:*", DummyBean.class);
+        assertEquals(1, beans.size());
+        assertEquals("dummy name 4", beans.iterator().next().getName());
+
+        template.close();
+        assertEquals(5, template.getCoalescedUpdateCount());
+    }
+
+    @Test
+    public void closeDrainsBatchedUpdates() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setUpdateBatchSize(100);
+        template.setUpdateBatchLatency(0);
+
+        final Date today = new Date();
+        template.index(new DummyBean("1", today, "dummy name"), new DummyBean("2", today, "dummy name"));
+        template.delete("1");
+
+        final DrainResult result = template.close();
+        assertEquals(2, result.getFlushedCount());
+        assertEquals(0, result.getDroppedCount());
+        assertFalse(template.isRunning());
+        assertEquals(1, template.query("*:*").getMatchingEntries().size());
+
+        try
+        {
+            template.index(new DummyBean("3", today, "dummy name"));
+            fail("Expected an InvalidOperationException");
+        }
+        catch (InvalidOperationException e)
+        {
+            assertEquals(1, template.query("*:*").getMatchingEntries().size());
+        }
+
+        template.start();
+        template.index(new DummyBean("3", today, "dummy name"));
+        template.flush();
+        assertEquals(2, template.query("*:*").getMatchingEntries().size());
+
+        template.close();
+    }
+
+    @Test
+    public void refuseBatchedWriteRacingClose() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setUpdateBatchSize(100);
+        template.setUpdateBatchLatency(0);
+
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        final IndexEntry document = new SimpleIndexEntry()
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Set<Map.Entry<String, Object>> entrySet()
+            {
+                entered.countDown();
+                try
+                {
+                    closed.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+
+                return super.entrySet();
+            }
+        };
+        document.put("id", "1");
+        document.put("name", "dummy name");
+
+        final List<Exception> failures = new ArrayList<Exception>();
+        final Thread writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    template.add(document);
+                }
+                catch (Exception e)
+                {
+                    failures.add(e);
+                }
+            }
+        });
+        writer.start();
+
+        entered.await();
+        final DrainResult result = template.close();
+        closed.countDown();
+        writer.join();
+
+        assertEquals(0, result.getFlushedCount());
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof InvalidOperationException);
+        assertEquals(0, template.query("*:*").getMatchingEntries().size());
+    }
+
     @Test
     public void searchWithManyParams()
     {
@@ -269,4 +1135,63 @@ public class TestSolrTemplate
     {
         searchOperations.query("id:{id}", new Object[] { 123, "toto" });
     }
+
+    /**
+     * Indexes 95 beans in chunks of 10 converted on four threads, checking
+     * that the index is committed once, and returns the identifiers in the
+     * order they were returned.
+     */
+    private static List<String> indexInParallel(final ExecutorService pool, final boolean ordered) throws Exception
+    {
+        final AtomicInteger commits = new AtomicInteger();
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" })
+        {
+            @Override
+            public void commit()
+            {
+                commits.incrementAndGet();
+
+                super.commit();
+            }
+        };
+        template.setConversionExecutor(pool);
+        template.setIndexChunkSize(10);
+        template.setOrderedConversion(ordered);
+
+        final Date today = new Date();
+        final List<DummyBean> beans = new ArrayList<DummyBean>();
+        for (int i = 0; i < 95; ++i)
+        {
+            beans.add(new DummyBean("id" + i, today, "dummy name"));
+        }
+
+        try
+        {
+            final List<String> ids = new ArrayList<String>(template.index(beans));
+
+            assertEquals(95, ids.size());
+            assertEquals(1, commits.get());
+            assertEquals(95, template.query("*:*", new PageRequest(0, 1)).getTotalCount());
+
+            return ids;
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Waits for the number of entries matching a query to reach a value.
+     */
+    private static void awaitCount(final SearchOperations operations, final String query, final int count) throws InterruptedException
+    {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (operations.query(query).getMatchingEntries().size() != count)
+        {
+            assertTrue(System.currentTimeMillis() < deadline);
+
+            Thread.sleep(10);
+        }
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.search.solr.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Test;
+import org.springframework.data.search.DummyBean;
+
+/**
+ * Unit tests for {@link SolrEntityCache}.
+ *
+ * @author Manish Baxi
+ */
+public class TestSolrEntityCache
+{
+    /**
+     * Tests that the least recently used entity is evicted when the cache is
+     * full.
+     */
+    @Test
+    public void testEvictLeastRecentlyUsed()
+    {
+        final SolrEntityCache<DummyBean> cache = new SolrEntityCache<DummyBean>(2, 60000);
+        final DummyBean first = bean("1");
+        final DummyBean second = bean("2");
+
+        cache.put(first, cache.getGeneration());
+        cache.put(second, cache.getGeneration());
+        assertEquals(first, cache.get("1"));
+
+        cache.put(bean("3"), cache.getGeneration());
+
+        assertEquals(first, cache.get("1"));
+        assertNull(cache.get("2"));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * Tests that callers get their own copies of cached entities, so that
+     * modifying one does not change what other callers get.
+     */
+    @Test
+    public void testCopy()
+    {
+        final SolrEntityCache<DummyBean> cache = new SolrEntityCache<DummyBean>(10, 60000);
+        final DummyBean bean = bean("1");
+
+        cache.put(bean, cache.getGeneration());
+        bean.setName("changed before get");
+
+        final DummyBean first = cache.get("1");
+        assertNotSame(bean, first);
+        assertEquals("dummy name", first.getName());
+
+        first.setName("changed after get");
+
+        final DummyBean second = cache.get("1");
+        assertNotSame(first, second);
+        assertEquals("dummy name", second.getName());
+    }
+
+    /**
+     * Tests that checking whether an entity is cached does not count as a hit
+     * or a miss.
+     */
+    @Test
+    public void testContains()
+    {
+        final SolrEntityCache<DummyBean> cache = new SolrEntityCache<DummyBean>(10, 60000);
+
+        cache.put(bean("1"), cache.getGeneration());
+
+        assertTrue(cache.contains("1"));
+        assertFalse(cache.contains("2"));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    /**
+     * Tests that entities expire once their time to live has passed.
+     */
+    @Test
+    public void testExpire() throws InterruptedException
+    {
+        final SolrEntityCache<DummyBean> cache = new SolrEntityCache<DummyBean>(10, 20);
+
+        cache.put(bean("1"), cache.getGeneration());
+        Thread.sleep(50);
+
+        assertNull(cache.get("1"));
+        assertEquals(1, cache.getExpirationCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * Tests that changed entities are removed, and that entities loaded before
+     * a change are not cached.
+     */
+    @Test
+    public void testInvalidate()
+    {
+        final SolrEntityCache<DummyBean> cache = new SolrEntityCache<DummyBean>(10, 60000);
+
+        cache.put(bean("1"), cache.getGeneration());
+        cache.put(bean("2"), cache.getGeneration());
+        cache.entriesChanged(Arrays.asList("1"));
+
+        assertNull(cache.get("1"));
+        assertEquals("2", cache.get("2").getId());
+
+        final long generation = cache.getGeneration();
+        cache.indexChanged();
+        cache.put(bean("3"), generation);
+
+        assertEquals(0, cache.getSize());
+    }
+
+    private static DummyBean bean(final String id)
+    {
+        return new DummyBean(id, new Date(), "dummy name");
+    }
+}
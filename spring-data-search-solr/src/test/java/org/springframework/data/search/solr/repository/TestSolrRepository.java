@@ -16,14 +16,23 @@
 
 package org.springframework.data.search.solr.repository;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.search.DummyBean;
+import org.springframework.data.search.solr.SolrTemplate;
+import org.springframework.data.search.solr.repository.support.SimpleSolrEntityInformation;
+import org.springframework.data.search.solr.repository.support.SolrRepositoryFactory;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
@@ -60,6 +69,19 @@ public class TestSolrRepository
         assertNotNull(this.repository);
     }
 
+    /**
+     * Tests that records can be counted, in total and for a query.
+     */
+    @Test
+    public void testCount()
+    {
+        this.repository.save(new DummyBean(UUID.randomUUID().toString(), new Date(), "Searchable data"));
+        this.repository.save(new DummyBean(UUID.randomUUID().toString(), new Date(), "Other data"));
+
+        assertEquals(2, this.repository.count());
+        assertEquals(1, this.repository.count("name:Searchable"));
+    }
+
     /**
      * Tests that objects indexed previously can be loaded using the repository
      * interfaces.
@@ -79,6 +101,119 @@ public class TestSolrRepository
         assertEquals(bean.getName(), indexedBean.getName());
     }
 
+    /**
+     * Tests that records found by identifier are served from an entity cache
+     * until they are changed through the repository or its template.
+     */
+    @Test
+    public void testFindOneThroughEntityCache() throws Exception
+    {
+        final AtomicInteger queries = new AtomicInteger();
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" })
+        {
+            @Override
+            public <S> S findById(final String id, final Class<S> clazz)
+            {
+                queries.incrementAndGet();
+
+                return super.findById(id, clazz);
+            }
+        };
+        final SimpleSolrRepository<DummyBean> cachedRepository = new SimpleSolrRepository<DummyBean>(template, new SimpleSolrEntityInformation<DummyBean>(
+                DummyBean.class));
+        final SolrEntityCache<DummyBean> cache = new SolrEntityCache<DummyBean>(100, 60000);
+        cachedRepository.setEntityCache(cache);
+
+        final String id = UUID.randomUUID().toString();
+        cachedRepository.save(new DummyBean(id, new Date(), "Searchable data"));
+
+        assertEquals("Searchable data", cachedRepository.findOne(id).getName());
+        assertEquals("Searchable data", cachedRepository.findOne(id).getName());
+        assertEquals(1, queries.get());
+        assertEquals(1, cache.getHitCount());
+
+        assertTrue(cachedRepository.exists(id));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cachedRepository.save(new DummyBean(id, new Date(), "Changed data"));
+
+        assertEquals("Changed data", cachedRepository.findOne(id).getName());
+        assertEquals(2, queries.get());
+
+        template.delete(id);
+
+        assertNull(cachedRepository.findOne(id));
+        assertEquals(3, queries.get());
+    }
+
+    /**
+     * Tests that records cached by a repository created with an entity cache
+     * while changes to them are still uncommitted are discarded once the
+     * changes are committed.
+     */
+    @Test
+    public void testFindOneThroughEntityCacheWithoutAutoCommit() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setAutoCommit(false);
+        final SolrRepositoryFactory factory = new SolrRepositoryFactory(template);
+        factory.setEntityCacheSize(100);
+        final DummyBeanRepository cachedRepository = factory.getRepository(DummyBeanRepository.class);
+
+        final String id = UUID.randomUUID().toString();
+        cachedRepository.save(new DummyBean(id, new Date(), "Searchable data"));
+        cachedRepository.commit();
+
+        assertEquals("Searchable data", cachedRepository.findOne(id).getName());
+        cachedRepository.findOne(id).setName("Modified data");
+        assertEquals("Searchable data", cachedRepository.findOne(id).getName());
+
+        cachedRepository.save(new DummyBean(id, new Date(), "Changed data"));
+
+        assertEquals("Searchable data", cachedRepository.findOne(id).getName());
+
+        cachedRepository.commit();
+
+        assertEquals("Changed data", cachedRepository.findOne(id).getName());
+    }
+
+    /**
+     * Tests that records are not cached while updates are batched, as they
+     * become visible without being committed through the template.
+     */
+    @Test
+    public void testEntityCacheNotPopulatedWhileBatching() throws Exception
+    {
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" });
+        template.setUpdateBatchSize(10);
+        final SimpleSolrRepository<DummyBean> cachedRepository = new SimpleSolrRepository<DummyBean>(template, new SimpleSolrEntityInformation<DummyBean>(
+                DummyBean.class));
+        final SolrEntityCache<DummyBean> cache = new SolrEntityCache<DummyBean>(100, 60000);
+        cachedRepository.setEntityCache(cache);
+
+        final String id = UUID.randomUUID().toString();
+        cachedRepository.save(new DummyBean(id, new Date(), "Searchable data"));
+        template.flush();
+
+        assertEquals("Searchable data", cachedRepository.findOne(id).getName());
+        assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * Tests that looking up a missing record returns <code>null</code> rather
+     * than failing, and that existence checks reflect indexed records.
+     */
+    @Test
+    public void testFindMissingAndExists()
+    {
+        final DummyBean bean = this.repository.save(new DummyBean(UUID.randomUUID().toString(), new Date(), "Searchable data"));
+
+        assertTrue(this.repository.exists(bean.getId()));
+        assertFalse(this.repository.exists("missing"));
+        assertNull(this.repository.findOne("missing"));
+    }
+
     /**
      * Tests that all indexed records can be retrieved.
      */
@@ -102,6 +237,49 @@ public class TestSolrRepository
         assertNotNull(beans.iterator());
     }
 
+    /**
+     * Tests that indexed records can be retrieved by their identifiers, in the
+     * order in which the identifiers are given.
+     */
+    @Test
+    public void testFindAllByIds()
+    {
+        final DummyBean first = this.repository.save(new DummyBean(UUID.randomUUID().toString(), new Date(), "First"));
+        final DummyBean second = this.repository.save(new DummyBean(UUID.randomUUID().toString(), new Date(), "Second"));
+
+        final List<DummyBean> beans = new ArrayList<DummyBean>();
+        for (DummyBean bean : this.repository.findAll(Arrays.asList(second.getId(), "missing", first.getId())))
+        {
+            beans.add(bean);
+        }
+
+        assertEquals(2, beans.size());
+        assertEquals(second.getId(), beans.get(0).getId());
+        assertEquals(first.getId(), beans.get(1).getId());
+    }
+
+    /**
+     * Tests that indexed records can be retrieved one page at a time.
+     */
+    @Test
+    public void testFindAllPaged()
+    {
+        for (int i = 0; i < 3; ++i)
+        {
+            this.repository.save(new DummyBean(UUID.randomUUID().toString(), new Date(), "Searchable data"));
+        }
+
+        Page<DummyBean> page = this.repository.findAll(new PageRequest(1, 2));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(1, page.getNumberOfElements());
+
+        page = this.repository.findAll("name:Searchable", new PageRequest(0, 2));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(2, page.getNumberOfElements());
+    }
+
     /**
      * Tests that objects can be indexed using the repository interfaces.
      */
@@ -117,4 +295,49 @@ public class TestSolrRepository
         assertEquals(bean.getModified(), indexedBean.getModified());
         assertEquals(bean.getName(), indexedBean.getName());
     }
+
+    /**
+     * Tests that multiple objects are saved and deleted in chunks of the size
+     * configured on the repository factory, with a single commit after the
+     * last chunk.
+     */
+    @Test
+    public void testSaveAndDeleteInChunks() throws Exception
+    {
+        final AtomicInteger commits = new AtomicInteger();
+        final SolrTemplate template = new SolrTemplate("default", true, new String[] { "solr/solr.xml" })
+        {
+            @Override
+            public void commit()
+            {
+                commits.incrementAndGet();
+
+                super.commit();
+            }
+        };
+        final SolrRepositoryFactory factory = new SolrRepositoryFactory(template);
+        factory.setChunkSize(10);
+        final DummyBeanRepository chunkedRepository = factory.getRepository(DummyBeanRepository.class);
+
+        final List<DummyBean> beans = new ArrayList<DummyBean>();
+        for (int i = 0; i < 25; ++i)
+        {
+            beans.add(new DummyBean(UUID.randomUUID().toString(), new Date(), "Searchable data"));
+        }
+
+        final List<DummyBean> saved = new ArrayList<DummyBean>();
+        for (DummyBean bean : chunkedRepository.save(beans))
+        {
+            saved.add(bean);
+        }
+
+        assertEquals(beans, saved);
+        assertEquals(1, commits.get());
+        assertEquals(25, chunkedRepository.findAll(new PageRequest(0, 1)).getTotalElements());
+
+        chunkedRepository.delete(beans);
+
+        assertEquals(2, commits.get());
+        assertEquals(0, chunkedRepository.findAll(new PageRequest(0, 1)).getTotalElements());
+    }
 }